@@ -3,27 +3,105 @@ package builders;
 import model.Booking;
 import model.BookingDates;
 import net.datafaker.Faker;
+import net.datafaker.service.RandomService;
+
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * A builder class for creating Booking objects with random or customized data.
+ * <p>
+ * Generated names carry a suffix that is unique to this JVM run, so tests running in parallel against the same
+ * booker instance never pick up each other's bookings when filtering by name.
+ * <p>
+ * Random values are only generated in {@link #build()} for the fields that were not set, using a Faker instance
+ * shared by all builders on the same thread. Setting a seed, with {@link #setSeed(long)} or the system property
+ * {@code booker.data.seed}, makes the generated bookings reproducible. The unique name suffix is derived from the
+ * seed instead of being random, and booking dates are counted from 2024-01-01 instead of today. Each thread's Faker
+ * is seeded with the seed mixed with the order in which the thread first built a booking, so threads generate
+ * different data, and a run repeats its data as long as its threads start building in the same order.
  */
 public class BookingBuilder {
 
+    private static final String[] ADDITIONAL_NEEDS = {"Breakfast", "Lunch", "Dinner", "Accessible Room", ""};
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private static final LocalDate SEEDED_TODAY = LocalDate.of(2024, 1, 1);
+
     /**
-     * Initialise the DataFaker
+     * Odd 64-bit constant spreading the thread indexes over the seed space, so neighbouring threads don't get
+     * neighbouring seeds.
      */
-    private final Faker faker = new Faker();
+    private static final long THREAD_SEED_STEP = 0x9E3779B97F4A7C15L;
 
     /**
-     * Default values initialized using Faker
+     * Index given to the next thread that creates a seeded Faker, restarting at 0 whenever the seed is set
      */
-    private String firstname = faker.name().firstName();
-    private String lastname = faker.name().lastName();
-    private final int totalPrice = faker.number().numberBetween(100, 1000);
-    private final boolean depositPaid = faker.random().nextBoolean();
-    private String checkin = faker.expression("#{date.past '10', 'DAYS', 'YYYY-MM-dd'}");
-    private String checkout = faker.expression("#{date.future '30', 'DAYS', 'YYYY-MM-dd'}");
-    private final String additionalNeeds = faker.expression("#{options.option 'Breakfast', 'Lunch', 'Dinner', 'Accessible Room', ''}");
+    private static final AtomicInteger THREAD_INDEX = new AtomicInteger();
+
+    private static final int RUN_ID_LENGTH = 4;
+    private static final long RUN_ID_RANGE = 36L * 36 * 36 * 36;
+
+    /**
+     * Token identifying this JVM run, so concurrent runs against one server don't collide either. Always
+     * {@value #RUN_ID_LENGTH} base-36 digits, so a run ID followed by a sequence number can't spell the run ID and
+     * sequence number of another run.
+     */
+    private static volatile String runId;
+
+    /**
+     * Seed for the Faker instances, null for random data. The generation changes whenever the seed is set, so that
+     * every thread replaces its Faker on next use.
+     */
+    private static volatile Long seed;
+    private static volatile int generation;
+
+    private static final ThreadLocal<SeededFaker> FAKER = new ThreadLocal<>();
+
+    static {
+        Long configuredSeed = Long.getLong("booker.data.seed");
+        if (configuredSeed != null) {
+            setSeed(configuredSeed);
+        } else {
+            runId = runId(ThreadLocalRandom.current().nextLong(RUN_ID_RANGE));
+        }
+    }
+
+    private String firstname;
+    private boolean firstnameSet;
+    private String lastname;
+    private boolean lastnameSet;
+    private String checkin;
+    private boolean checkinSet;
+    private String checkout;
+    private boolean checkoutSet;
+
+    /**
+     * Makes all data generated from now on reproducible, on every thread.
+     *
+     * @param value The seed for the random data and the unique name suffix.
+     */
+    public static synchronized void setSeed(long value) {
+        seed = value;
+        runId = runId(Math.abs(value % RUN_ID_RANGE));
+        SEQUENCE.set(0);
+        THREAD_INDEX.set(0);
+        generation++;
+    }
+
+    /**
+     * Appends a suffix to the given name that no other call in any worker thread of this run will produce.
+     *
+     * @param name The base name, e.g. "Xander".
+     * @return The name with a unique suffix, e.g. "Xander-k3f01" for run ID "k3f0" and sequence number 1.
+     */
+    public static String unique(String name) {
+        return name + "-" + runId + Long.toString(SEQUENCE.incrementAndGet(), 36);
+    }
 
     /**
      * Sets the first name for the booking.
@@ -33,6 +111,7 @@ public class BookingBuilder {
      */
     public BookingBuilder withFirstname(String firstname) {
         this.firstname = firstname;
+        this.firstnameSet = true;
         return this;
     }
 
@@ -44,6 +123,7 @@ public class BookingBuilder {
      */
     public BookingBuilder withLastname(String lastname) {
         this.lastname = lastname;
+        this.lastnameSet = true;
         return this;
     }
 
@@ -55,6 +135,7 @@ public class BookingBuilder {
      */
     public BookingBuilder withCheckin(String checkin) {
         this.checkin = checkin;
+        this.checkinSet = true;
         return this;
     }
 
@@ -66,16 +147,52 @@ public class BookingBuilder {
      */
     public BookingBuilder withCheckout(String checkout) {
         this.checkout = checkout;
+        this.checkoutSet = true;
         return this;
     }
 
     /**
-     * Builds a Booking object using the provided or default values.
+     * Builds a Booking object using the provided values, generating random values for the others.
      *
      * @return A Booking object.
      */
     public Booking build() {
-        BookingDates bookingDates = new BookingDates(checkin, checkout);
-        return new Booking(firstname, lastname, totalPrice, depositPaid, bookingDates, additionalNeeds);
+        Faker faker = faker();
+        RandomService random = faker.random();
+        LocalDate today = seed == null ? LocalDate.now() : SEEDED_TODAY;
+
+        BookingDates bookingDates = new BookingDates(
+            checkinSet ? checkin : today.minusDays(random.nextInt(1, 10)).toString(),
+            checkoutSet ? checkout : today.plusDays(random.nextInt(1, 30)).toString());
+
+        return new Booking(
+            firstnameSet ? firstname : unique(faker.name().firstName()),
+            lastnameSet ? lastname : unique(faker.name().lastName()),
+            random.nextInt(100, 1000),
+            random.nextBoolean(),
+            bookingDates,
+            ADDITIONAL_NEEDS[random.nextInt(ADDITIONAL_NEEDS.length)]);
+    }
+
+    private static String runId(long value) {
+        String id = Long.toString(value, 36);
+        return "0".repeat(RUN_ID_LENGTH - id.length()) + id;
+    }
+
+    private static Faker faker() {
+        SeededFaker current = FAKER.get();
+        int currentGeneration = generation;
+        if (current == null || current.generation() != currentGeneration) {
+            Long currentSeed = seed;
+            Faker faker = currentSeed == null
+                ? new Faker()
+                : new Faker(new Random(currentSeed + THREAD_INDEX.getAndIncrement() * THREAD_SEED_STEP));
+            current = new SeededFaker(faker, currentGeneration);
+            FAKER.set(current);
+        }
+        return current.faker();
+    }
+
+    private record SeededFaker(Faker faker, int generation) {
     }
 }
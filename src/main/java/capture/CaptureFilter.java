@@ -0,0 +1,159 @@
+package capture;
+
+import io.restassured.authentication.PreemptiveBasicAuthScheme;
+import io.restassured.filter.FilterContext;
+import io.restassured.filter.OrderedFilter;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Captures every request and its response into a {@link TrafficJournal}, to be replayed later with
+ * {@link TrafficReplayer}.
+ * <p>
+ * Only what booker looks at is kept: method, path and query, the Accept, Content-Type, Authorization and Cookie
+ * headers, and the body. Response bodies larger than {@code booker.capture.maxBody} characters (64 KiB by default),
+ * such as full booking ID listings, are left out of the journal.
+ * <p>
+ * Each exchange records the lane of the thread that sent it, see {@link #lane()}. The replay sends the exchanges of
+ * a lane one after the other and the lanes concurrently.
+ */
+public class CaptureFilter implements OrderedFilter {
+
+    public static final String FILE_PROPERTY = "booker.capture.file";
+    public static final String MAX_BODY_PROPERTY = "booker.capture.maxBody";
+
+    private static final AtomicLong LANES = new AtomicLong();
+    private static final ThreadLocal<String> LANE = ThreadLocal.withInitial(() -> {
+        String name = Thread.currentThread().getName();
+        long id = LANES.incrementAndGet();
+        return name.isEmpty() ? "lane-" + id : name + "#" + id;
+    });
+
+    private final TrafficJournal journal;
+    private final int maxResponseLength;
+
+    /**
+     * @param journal           The journal to write the exchanges to.
+     * @param maxResponseLength The longest response body kept, in characters.
+     */
+    public CaptureFilter(TrafficJournal journal, int maxResponseLength) {
+        this.journal = journal;
+        this.maxResponseLength = maxResponseLength;
+    }
+
+    /**
+     * Opens the journal named by the {@code booker.capture.file} system property, closed when the JVM exits.
+     *
+     * @return A filter writing to the journal, or null if capture is not requested.
+     */
+    public static CaptureFilter fromSystemProperties() {
+        String file = System.getProperty(FILE_PROPERTY);
+        if (file == null || file.isBlank()) {
+            return null;
+        }
+        TrafficJournal journal = new TrafficJournal(Path.of(file));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            journal.close();
+            System.out.println("Captured " + journal.written() + " requests to " + journal.getFile().toAbsolutePath());
+        }, "traffic-journal-shutdown"));
+        return new CaptureFilter(journal, Integer.getInteger(MAX_BODY_PROPERTY, 64 * 1024));
+    }
+
+    public TrafficJournal getJournal() {
+        return journal;
+    }
+
+    /**
+     * Virtual threads have no name and pooled threads may share one, so a lane is the thread name, if any, followed
+     * by a number handed out on the thread's first capture.
+     *
+     * @return The lane of the calling thread, unique within the JVM.
+     */
+    public static String lane() {
+        return LANE.get();
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec,
+                           FilterableResponseSpecification responseSpec,
+                           FilterContext ctx) {
+        long start = journal.elapsedMicros();
+        long begin = System.nanoTime();
+        Response response = ctx.next(requestSpec, responseSpec);
+        long latency = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - begin);
+
+        URI uri = URI.create(requestSpec.getURI());
+        capture(CapturedExchange.builder()
+            .start(start)
+            .lane(lane())
+            .method(requestSpec.getMethod())
+            .path(uri.getRawQuery() == null ? uri.getRawPath() : uri.getRawPath() + "?" + uri.getRawQuery())
+            .headers(headers(requestSpec))
+            .body(body(requestSpec.getBody()))
+            .status(response.getStatusCode())
+            .latency(latency), response.asString());
+        return response;
+    }
+
+    /**
+     * Writes an exchange to the journal, also for requests sent without REST-assured, such as the ones of
+     * {@link client.AsyncBookingClient}.
+     *
+     * @param exchange The exchange, with its start taken from {@link TrafficJournal#elapsedMicros()}.
+     * @param response The response body, left out if longer than {@code booker.capture.maxBody}.
+     */
+    public void capture(CapturedExchange.CapturedExchangeBuilder exchange, String response) {
+        journal.append(exchange
+            .response(response.length() <= maxResponseLength ? response : null)
+            .build());
+    }
+
+    /**
+     * Runs just before the tracking and metrics filters, so the latency is close to what booker took.
+     */
+    @Override
+    public int getOrder() {
+        return LOWEST_PRECEDENCE - 3;
+    }
+
+    private static Map<String, String> headers(FilterableRequestSpecification requestSpec) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        String accept = requestSpec.getHeaders().getValue("Accept");
+        if (accept != null) {
+            headers.put("Accept", accept);
+        }
+        if (requestSpec.getContentType() != null) {
+            headers.put("Content-Type", requestSpec.getContentType());
+        }
+        String authorization = requestSpec.getHeaders().getValue("Authorization");
+        if (authorization != null) {
+            headers.put("Authorization", authorization);
+        } else if (requestSpec.getAuthenticationScheme() instanceof PreemptiveBasicAuthScheme basic) {
+            // Set with RestAssured.authentication rather than auth().preemptive() on the request
+            headers.put("Authorization", basic.generateAuthToken());
+        }
+        if (requestSpec.getCookies().exist()) {
+            headers.put("Cookie", requestSpec.getCookies().asList().stream()
+                .map(cookie -> cookie.getName() + "=" + cookie.getValue())
+                .collect(Collectors.joining("; ")));
+        }
+        return headers;
+    }
+
+    private static String body(Object body) {
+        if (body == null) {
+            return null;
+        }
+        return body instanceof byte[] bytes ? new String(bytes, StandardCharsets.UTF_8) : body.toString();
+    }
+}
@@ -0,0 +1,32 @@
+package capture;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.jackson.Jacksonized;
+
+import java.util.Map;
+
+/**
+ * One request and its response, as written to a {@link TrafficJournal} line.
+ */
+@Data
+@Builder
+@Jacksonized
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CapturedExchange {
+
+    private long start;                     // Microseconds between the start of the capture and the request
+    private String lane;                    // Thread that sent the request, see CaptureFilter.lane()
+    private String method;
+    private String path;                    // Path and query string, e.g. /booking?firstname=Sally
+    private Map<String, String> headers;    // Accept, Content-Type, Authorization and Cookie when set
+    private String body;                    // Request body, null if none
+    private int status;
+    private long latency;                   // Microseconds until the response was read
+    private String response;                // Response body, null if larger than the capture limit
+}
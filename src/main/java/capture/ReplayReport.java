@@ -0,0 +1,171 @@
+package capture;
+
+import metrics.EndpointStats;
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies per endpoint of a {@link TrafficReplayer} run, and the responses that differed from the captured ones.
+ * Only the first {@value #MAX_DIFFERENCES} differences are kept, all of them are counted.
+ */
+public class ReplayReport {
+
+    private static final int MAX_DIFFERENCES = 50;
+
+    private final Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> statusMismatches = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> bodyMismatches = new ConcurrentHashMap<>();
+    private final LongAdder failures = new LongAdder();
+    private final Queue<Difference> differences = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger differenceCount = new AtomicInteger();
+    private volatile Duration elapsed = Duration.ZERO;
+
+    /**
+     * A replayed request whose response did not match the captured one, or that failed.
+     *
+     * @param lane        The lane, i.e. captured thread, the request was replayed on.
+     * @param request     The method and path as captured, e.g. "GET /booking/12".
+     * @param description What differed, e.g. "status 404, captured 200".
+     */
+    public record Difference(String lane, String request, String description) {
+
+        @Override
+        public String toString() {
+            return request + " [" + lane + "]: " + description;
+        }
+    }
+
+    void record(String endpoint, long latencyNanos, long sizeBytes, int status) {
+        stats.computeIfAbsent(endpoint, e -> new EndpointStats()).record(latencyNanos, sizeBytes, status);
+    }
+
+    void statusMismatch(String endpoint, Difference difference) {
+        statusMismatches.computeIfAbsent(endpoint, e -> new LongAdder()).increment();
+        add(difference);
+    }
+
+    void bodyMismatch(String endpoint, Difference difference) {
+        bodyMismatches.computeIfAbsent(endpoint, e -> new LongAdder()).increment();
+        add(difference);
+    }
+
+    void failed(Difference difference) {
+        failures.increment();
+        add(difference);
+    }
+
+    void finish(Duration elapsed) {
+        this.elapsed = elapsed;
+    }
+
+    /**
+     * @return The time taken by the replay.
+     */
+    public Duration getElapsed() {
+        return elapsed;
+    }
+
+    /**
+     * @return The number of requests replayed and answered.
+     */
+    public long requests() {
+        return stats.values().stream().mapToLong(s -> s.latencies().getTotalCount()).sum();
+    }
+
+    /**
+     * @return The number of responses with another status code than captured.
+     */
+    public long statusMismatches() {
+        return statusMismatches.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    /**
+     * @return The number of responses with the captured status code but another body.
+     */
+    public long bodyMismatches() {
+        return bodyMismatches.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    /**
+     * @return The number of requests that got no response.
+     */
+    public long failures() {
+        return failures.sum();
+    }
+
+    /**
+     * @return The first differences found, in no particular order.
+     */
+    public List<Difference> differences() {
+        return List.copyOf(differences);
+    }
+
+    /**
+     * @param endpoint The endpoint, e.g. "GET /booking/{id}".
+     * @return The latencies of the endpoint in microseconds, or null if it was not replayed.
+     */
+    public Histogram latencies(String endpoint) {
+        EndpointStats endpointStats = stats.get(endpoint);
+        return endpointStats == null ? null : endpointStats.latencies();
+    }
+
+    /**
+     * Prints one line per endpoint with throughput, latency percentiles in milliseconds and mismatch counts,
+     * followed by the differences kept.
+     *
+     * @param out The stream to print to.
+     */
+    public void print(PrintStream out) {
+        double seconds = Math.max(elapsed.toNanos(), 1) / 1e9;
+        String format = "%-26s %9s %9s %9s %9s %9s %9s %12s %10s%n";
+        out.printf(format, "Endpoint", "Requests", "Req/s", "p50 ms", "p95 ms", "p99 ms", "max ms", "Status diffs",
+            "Body diffs");
+        new TreeMap<>(stats).forEach((endpoint, endpointStats) -> {
+            Histogram latencies = endpointStats.latencies();
+            out.printf(format,
+                endpoint,
+                latencies.getTotalCount(),
+                String.format("%.1f", latencies.getTotalCount() / seconds),
+                millis(latencies.getValueAtPercentile(50)),
+                millis(latencies.getValueAtPercentile(95)),
+                millis(latencies.getValueAtPercentile(99)),
+                millis(latencies.getMaxValue()),
+                count(statusMismatches, endpoint),
+                count(bodyMismatches, endpoint));
+        });
+        out.printf(format, "Total", requests(), String.format("%.1f", requests() / seconds), "", "", "", "",
+            statusMismatches(), bodyMismatches());
+        if (failures() > 0) {
+            out.println(failures() + " requests failed without a response");
+        }
+        if (differenceCount.get() > 0) {
+            out.printf("First %d of %d differences:%n", differences.size(), differenceCount.get());
+            differences.forEach(difference -> out.println("  " + difference));
+        }
+    }
+
+    private void add(Difference difference) {
+        if (differenceCount.incrementAndGet() <= MAX_DIFFERENCES) {
+            differences.add(difference);
+        }
+    }
+
+    private static long count(Map<String, LongAdder> counts, String endpoint) {
+        LongAdder count = counts.get(endpoint);
+        return count == null ? 0 : count.sum();
+    }
+
+    private static String millis(long micros) {
+        return String.format("%.2f", micros / 1000.0);
+    }
+}
@@ -0,0 +1,165 @@
+package capture;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static helpers.JsonSupport.MAPPER;
+
+/**
+ * A file of {@link CapturedExchange}s, one JSON object per line.
+ * <p>
+ * Request threads only put exchanges on a bounded queue. A background thread serializes them and writes them to the
+ * file, so capturing adds no file I/O to the measured requests. If the writer falls more than
+ * {@value #QUEUE_CAPACITY} exchanges behind, request threads wait for it rather than drop exchanges.
+ */
+public final class TrafficJournal implements AutoCloseable {
+
+    private static final int QUEUE_CAPACITY = 8192;
+    private static final ObjectWriter WRITER = MAPPER.writerFor(CapturedExchange.class);
+    private static final ObjectReader READER = MAPPER.readerFor(CapturedExchange.class);
+    private static final CapturedExchange END = new CapturedExchange();
+
+    private final Path file;
+    private final long startNanos = System.nanoTime();
+    private final BlockingQueue<CapturedExchange> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final AtomicLong written = new AtomicLong();
+    private final Thread writer;
+    private volatile IOException failure;
+    private volatile boolean closed;
+
+    /**
+     * Creates or truncates the journal file and starts the writer thread.
+     *
+     * @param file The journal file, its parent directories are created if needed.
+     */
+    public TrafficJournal(Path file) {
+        this.file = file;
+        OutputStream out;
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            out = new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to create traffic journal " + file, e);
+        }
+        writer = new Thread(() -> write(out), "traffic-journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * @return The microseconds elapsed since the journal was created, the time base of
+     * {@link CapturedExchange#getStart()}.
+     */
+    public long elapsedMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Queues an exchange for writing, waiting if the writer is {@value #QUEUE_CAPACITY} exchanges behind.
+     * Exchanges appended after {@link #close()} are ignored.
+     *
+     * @param exchange The exchange to write.
+     */
+    public void append(CapturedExchange exchange) {
+        if (closed) {
+            return;
+        }
+        try {
+            queue.put(exchange);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return The number of exchanges written to the file so far.
+     */
+    public long written() {
+        return written.get();
+    }
+
+    /**
+     * Writes the queued exchanges and closes the file.
+     *
+     * @throws UncheckedIOException If writing the journal failed.
+     */
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            try {
+                queue.put(END);
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (failure != null) {
+            throw new UncheckedIOException("Unable to write traffic journal " + file, failure);
+        }
+    }
+
+    /**
+     * Reads every exchange of a journal file.
+     *
+     * @param file The journal file.
+     * @return The exchanges, in the order they were written.
+     * @throws UncheckedIOException If the file cannot be read or a line is not a valid exchange.
+     */
+    public static List<CapturedExchange> read(Path file) {
+        List<CapturedExchange> exchanges = new ArrayList<>();
+        try (MappingIterator<CapturedExchange> lines = READER.readValues(file.toFile())) {
+            while (lines.hasNextValue()) {
+                exchanges.add(lines.nextValue());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read traffic journal " + file, e);
+        }
+        return exchanges;
+    }
+
+    private void write(OutputStream out) {
+        try (out) {
+            while (true) {
+                CapturedExchange exchange = queue.take();
+                if (exchange == END) {
+                    return;
+                }
+                out.write(WRITER.writeValueAsBytes(exchange));
+                out.write('\n');
+                written.incrementAndGet();
+                if (queue.isEmpty()) {
+                    out.flush();
+                }
+            }
+        } catch (IOException e) {
+            failure = e;
+            // Stop accepting exchanges, and free the request threads waiting for room in the queue
+            closed = true;
+            queue.clear();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
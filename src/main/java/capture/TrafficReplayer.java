@@ -0,0 +1,354 @@
+package capture;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import load.UserThreads;
+import metrics.EndpointMetricsFilter;
+import specs.ConnectionConfig;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static helpers.JsonSupport.MAPPER;
+
+/**
+ * Replays the requests of a {@link TrafficJournal} against a booker instance and compares the responses with the
+ * captured ones.
+ * <p>
+ * Each captured thread becomes a lane, replayed in order on its own thread, so the replay has the concurrency of
+ * the captured run. At speed 1 each request is sent at its captured offset from the start, at speed N the offsets
+ * are divided by N, and at speed 0 every lane sends its next request as soon as the previous one is answered.
+ * <p>
+ * Bookings created and tokens issued during the replay get other IDs and values than in the capture. The replayer
+ * maps them: a captured {@code /booking/12} is sent to the ID the replayed creation of booking 12 returned, and a
+ * captured token cookie carries the token the replayed {@code /auth} call returned. A lane using a booking or token
+ * created on another lane waits until that creation has been replayed, and requests on the same booking are replayed
+ * in their captured order whatever lane they are on, so the order between lanes that matters holds at any speed.
+ * IDs and tokens that were not created during the capture, such as seeded bookings, are sent as captured.
+ * <p>
+ * A response differs when its status code differs, or when its body differs, ignoring the {@code bookingid} and
+ * {@code token} fields. Booking ID listings depend on the data of the target and are only compared on status.
+ */
+public class TrafficReplayer {
+
+    public static final String SPEED_PROPERTY = "booker.replay.speed";
+
+    private static final Pattern BOOKING_ID = Pattern.compile("^/booking/(\\d+)");
+    private static final Pattern TOKEN_COOKIE = Pattern.compile("(?<=token=)[^;]+");
+    private static final Set<String> VOLATILE_FIELDS = Set.of("bookingid", "token");
+    private static final String LISTING = "GET /booking";
+
+    private final URI target;
+    private final double speed;
+    private final HttpClient httpClient;
+    private final Duration requestTimeout;
+
+    // Captured booking IDs and tokens created during the capture, completed with their replayed values
+    private final Map<String, CompletableFuture<String>> bookingIds = new HashMap<>();
+    private final Map<String, CompletableFuture<String>> tokens = new HashMap<>();
+
+    /**
+     * @param target The base URI of the booker instance to replay against, e.g. "http://localhost:3001".
+     * @param speed  How many times faster than captured to replay, 0 for as fast as possible.
+     * @param config The connect and socket timeouts.
+     */
+    public TrafficReplayer(URI target, double speed, ConnectionConfig config) {
+        if (speed < 0 || Double.isNaN(speed)) {
+            throw new IllegalArgumentException("Replay speed must be 0 or more, not " + speed);
+        }
+        this.target = target;
+        this.speed = speed;
+        this.httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(config.getConnectTimeout())
+            .build();
+        this.requestTimeout = config.getSocketTimeout();
+    }
+
+    /**
+     * Reads the {@code booker.replay.speed} system property: a factor such as 1 or 10, or "max".
+     *
+     * @return The replay speed, 1 if not set and 0 for "max".
+     */
+    public static double speedFromSystemProperty() {
+        String value = System.getProperty(SPEED_PROPERTY, "1").trim();
+        return value.equalsIgnoreCase("max") ? 0 : Double.parseDouble(value);
+    }
+
+    /**
+     * Replays the exchanges and waits until every lane has finished.
+     *
+     * @param exchanges The captured exchanges, e.g. from {@link TrafficJournal#read(java.nio.file.Path)}.
+     * @return The latencies and differences of the replay.
+     * @throws InterruptedException If interrupted while waiting for the lanes.
+     */
+    public synchronized ReplayReport replay(List<CapturedExchange> exchanges) throws InterruptedException {
+        bookingIds.clear();
+        tokens.clear();
+        Map<String, CompletableFuture<Void>> lastUse = new HashMap<>();
+        Map<String, List<Step>> lanes = new LinkedHashMap<>();
+        exchanges.stream()
+            .sorted(Comparator.comparingLong(CapturedExchange::getStart))
+            .forEach(exchange -> {
+                Map<String, CompletableFuture<String>> created = created(exchange);
+                String value = created == null ? null : createdValue(exchange, exchange.getResponse());
+                if (value != null) {
+                    created.put(value, new CompletableFuture<>());
+                }
+                String booking = created == bookingIds ? value : bookingId(exchange.getPath());
+                Step step = new Step(exchange, booking == null ? null : lastUse.get(booking), new CompletableFuture<>());
+                if (booking != null) {
+                    lastUse.put(booking, step.done());
+                }
+                lanes.computeIfAbsent(exchange.getLane(), lane -> new ArrayList<>()).add(step);
+            });
+
+        ReplayReport report = new ReplayReport();
+        ExecutorService executor = UserThreads.newUserExecutor(Math.max(1, lanes.size()));
+        long begin = System.nanoTime();
+        for (List<Step> lane : lanes.values()) {
+            executor.execute(() -> {
+                for (Step step : lane) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        return;
+                    }
+                    waitUntil(begin, step.exchange().getStart());
+                    if (step.previous() != null) {
+                        await(step.previous());
+                    }
+                    try {
+                        replay(step.exchange(), report);
+                    } finally {
+                        step.done().complete(null);
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        report.finish(Duration.ofNanos(System.nanoTime() - begin));
+        return report;
+    }
+
+    /**
+     * A captured exchange, with the replay of the previous exchange on the same booking, if any.
+     */
+    private record Step(CapturedExchange exchange, CompletableFuture<Void> previous, CompletableFuture<Void> done) {
+    }
+
+    private void waitUntil(long begin, long startMicros) {
+        if (speed == 0) {
+            return;
+        }
+        long due = begin + (long) (TimeUnit.MICROSECONDS.toNanos(startMicros) / speed);
+        long wait;
+        while ((wait = due - System.nanoTime()) > 0 && !Thread.currentThread().isInterrupted()) {
+            LockSupport.parkNanos(wait);
+        }
+    }
+
+    private void replay(CapturedExchange captured, ReplayReport report) {
+        String request = captured.getMethod() + " " + captured.getPath();
+        String endpoint = EndpointMetricsFilter.endpoint(captured.getMethod(), captured.getPath());
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder(target.resolve(remapBookingId(captured.getPath())))
+            .timeout(requestTimeout)
+            .method(captured.getMethod(), captured.getBody() == null
+                ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofString(captured.getBody()));
+        if (captured.getHeaders() != null) {
+            captured.getHeaders().forEach((name, value) ->
+                builder.header(name, name.equals("Cookie") ? remapTokens(value) : value));
+        }
+
+        HttpResponse<String> response;
+        long start = System.nanoTime();
+        try {
+            response = httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
+            learn(captured, null);
+            report.failed(new ReplayReport.Difference(captured.getLane(), request, e.toString()));
+            return;
+        } catch (InterruptedException e) {
+            learn(captured, null);
+            Thread.currentThread().interrupt();
+            return;
+        }
+        report.record(endpoint, System.nanoTime() - start, response.body().length(), response.statusCode());
+        learn(captured, response.body());
+
+        if (response.statusCode() != captured.getStatus()) {
+            report.statusMismatch(endpoint, new ReplayReport.Difference(captured.getLane(), request,
+                "status " + response.statusCode() + ", captured " + captured.getStatus()));
+        } else if (captured.getResponse() != null && !endpoint.equals(LISTING)) {
+            String difference = bodyDifference(captured.getResponse(), response.body());
+            if (difference != null) {
+                report.bodyMismatch(endpoint, new ReplayReport.Difference(captured.getLane(), request, difference));
+            }
+        }
+    }
+
+    /**
+     * @return The booking IDs or tokens the exchange creates, or null if it creates neither.
+     */
+    private Map<String, CompletableFuture<String>> created(CapturedExchange exchange) {
+        if (!"POST".equals(exchange.getMethod())) {
+            return null;
+        }
+        return switch (exchange.getPath()) {
+            case "/booking" -> bookingIds;
+            case "/auth" -> tokens;
+            default -> null;
+        };
+    }
+
+    /**
+     * @return The created booking ID or token in a response body, or null if there is none.
+     */
+    private String createdValue(CapturedExchange exchange, String body) {
+        JsonNode json = body == null ? null : readJson(body);
+        String field = created(exchange) == bookingIds ? "bookingid" : "token";
+        return json == null || !json.hasNonNull(field) ? null : json.get(field).asText();
+    }
+
+    /**
+     * Maps the captured booking ID or token of a creation or login to the one returned by the replay, or to itself
+     * if the replay returned none, releasing the lanes waiting for it.
+     */
+    private void learn(CapturedExchange captured, String replayed) {
+        Map<String, CompletableFuture<String>> created = created(captured);
+        String before = created == null ? null : createdValue(captured, captured.getResponse());
+        if (before == null) {
+            return;
+        }
+        String after = replayed == null ? null : createdValue(captured, replayed);
+        created.get(before).complete(after == null ? before : after);
+    }
+
+    private static String bookingId(String path) {
+        Matcher matcher = BOOKING_ID.matcher(path);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    private String remapBookingId(String path) {
+        Matcher matcher = BOOKING_ID.matcher(path);
+        if (!matcher.find()) {
+            return path;
+        }
+        return "/booking/" + replayedValue(bookingIds, matcher.group(1)) + path.substring(matcher.end());
+    }
+
+    private String remapTokens(String cookies) {
+        return TOKEN_COOKIE.matcher(cookies).replaceAll(match -> replayedValue(tokens, match.group()));
+    }
+
+    /**
+     * @return The replayed value of a captured booking ID or token, or the captured one if it was not created during
+     * the capture.
+     */
+    private String replayedValue(Map<String, CompletableFuture<String>> created, String captured) {
+        CompletableFuture<String> replayed = created.get(captured);
+        String value = replayed == null ? null : await(replayed);
+        return value == null ? captured : value;
+    }
+
+    /**
+     * Waits, for at most the request timeout, until another lane has replayed an exchange this one depends on.
+     *
+     * @return The result of the exchange, or null if it did not complete in time.
+     */
+    private <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get(requestTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException | TimeoutException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return A description of the first difference between the bodies, or null if they match.
+     */
+    static String bodyDifference(String captured, String replayed) {
+        JsonNode before = readJson(captured);
+        JsonNode after = readJson(replayed);
+        if (before == null || after == null) {
+            return captured.equals(replayed) ? null : "body \"" + abbreviate(replayed) + "\", captured \""
+                + abbreviate(captured) + "\"";
+        }
+        return jsonDifference("", before, after);
+    }
+
+    private static String jsonDifference(String pointer, JsonNode captured, JsonNode replayed) {
+        if (captured.isObject() && replayed.isObject()) {
+            Set<String> fields = new TreeSet<>();
+            captured.fieldNames().forEachRemaining(fields::add);
+            replayed.fieldNames().forEachRemaining(fields::add);
+            for (String field : fields) {
+                if (!VOLATILE_FIELDS.contains(field)) {
+                    String difference = jsonDifference(pointer + "/" + field, captured.path(field), replayed.path(field));
+                    if (difference != null) {
+                        return difference;
+                    }
+                }
+            }
+            return null;
+        }
+        if (captured.isArray() && replayed.isArray() && captured.size() == replayed.size()) {
+            for (int i = 0; i < captured.size(); i++) {
+                String difference = jsonDifference(pointer + "/" + i, captured.get(i), replayed.get(i));
+                if (difference != null) {
+                    return difference;
+                }
+            }
+            return null;
+        }
+        return captured.equals(replayed) ? null : (pointer.isEmpty() ? "/" : pointer) + " is "
+            + describe(replayed) + ", captured " + describe(captured);
+    }
+
+    private static JsonNode readJson(String body) {
+        if (body.isBlank()) {
+            return null;
+        }
+        try {
+            return MAPPER.readTree(body);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    private static String describe(JsonNode node) {
+        return node.isMissingNode() ? "missing" : abbreviate(node.toString());
+    }
+
+    private static String abbreviate(String text) {
+        return text.length() <= 80 ? text : text.substring(0, 77) + "...";
+    }
+}
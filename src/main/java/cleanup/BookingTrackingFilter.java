@@ -0,0 +1,90 @@
+package cleanup;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.restassured.filter.FilterContext;
+import io.restassured.filter.OrderedFilter;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import org.apache.http.HttpStatus;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static helpers.JsonSupport.MAPPER;
+
+/**
+ * Adds the bookings created through REST-assured to the {@link TrackedBookings} entered by the calling thread,
+ * and removes the ones deleted. Threads that have not entered a set are not tracked, and the filter does nothing.
+ */
+public class BookingTrackingFilter implements OrderedFilter {
+
+    private static final Pattern BOOKING_PATH = Pattern.compile("/booking/(\\d+)/?");
+    private static final Pattern XML_BOOKING_ID = Pattern.compile("<bookingid>(\\d+)</bookingid>");
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec,
+                           FilterableResponseSpecification responseSpec,
+                           FilterContext ctx) {
+        Response response = ctx.next(requestSpec, responseSpec);
+
+        // A GET creates and deletes nothing, and its body, such as a streamed listing, is left unread
+        TrackedBookings tracked = TrackedBookings.current();
+        if (tracked != null && !requestSpec.getMethod().equals("GET")) {
+            record(tracked, requestSpec.getMethod(), URI.create(requestSpec.getURI()).getPath(),
+                response.getStatusCode(), response.getContentType(), response.asByteArray());
+        }
+        return response;
+    }
+
+    /**
+     * Tracks a booking created, or stops tracking one deleted, by a request sent without REST-assured, such as one
+     * of {@link client.AsyncBookingClient}.
+     *
+     * @param tracked     The set to add the booking to or remove it from.
+     * @param method      The request method.
+     * @param path        The request path, without the query.
+     * @param status      The response status code.
+     * @param contentType The response content type, or null.
+     * @param body        The response body.
+     */
+    public static void record(TrackedBookings tracked, String method, String path, int status, String contentType,
+                              byte[] body) {
+        if (method.equals("POST") && path.equals("/booking") && status == HttpStatus.SC_OK) {
+            int id = createdBookingId(contentType, body);
+            if (id > 0) {
+                tracked.add(id);
+            }
+        } else if (method.equals("DELETE") && status == HttpStatus.SC_CREATED) {
+            Matcher deleted = BOOKING_PATH.matcher(path);
+            if (deleted.matches()) {
+                tracked.remove(Integer.parseInt(deleted.group(1)));
+            }
+        }
+    }
+
+    @Override
+    public int getOrder() {
+        return LOWEST_PRECEDENCE - 2;
+    }
+
+    /**
+     * @return The ID in a JSON or XML create response, or 0 if it has none.
+     */
+    private static int createdBookingId(String contentType, byte[] body) {
+        if (contentType == null || !contentType.contains("json")) {
+            // booker answers XML requests with XML labelled as text/html
+            Matcher id = XML_BOOKING_ID.matcher(new String(body, StandardCharsets.UTF_8));
+            return id.find() ? Integer.parseInt(id.group(1)) : 0;
+        }
+        try {
+            JsonNode id = MAPPER.readTree(body).get("bookingid");
+            return id != null && id.canConvertToInt() ? id.asInt() : 0;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
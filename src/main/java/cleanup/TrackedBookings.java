@@ -0,0 +1,89 @@
+package cleanup;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The IDs of the bookings created by a test or test class that still exist, so they can be deleted afterwards.
+ * <p>
+ * Like a {@link metrics.MetricsScope}, a set is entered per thread: {@link BookingTrackingFilter} adds the bookings
+ * created by the calling thread to the set it has entered, and removes the ones it deletes. Several threads may
+ * enter the same set at once.
+ */
+public class TrackedBookings {
+
+    private static final ThreadLocal<TrackedBookings> CURRENT = new ThreadLocal<>();
+
+    private final Set<Integer> ids = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Makes the calling thread track the bookings it creates in this set, until {@link #exit()} is called.
+     */
+    public void enter() {
+        CURRENT.set(this);
+    }
+
+    /**
+     * Makes the calling thread track its bookings in the given set, or stop tracking them if it is null.
+     *
+     * @param tracked The set to enter, e.g. the one a parent thread had entered, or null.
+     */
+    public static void enter(TrackedBookings tracked) {
+        if (tracked == null) {
+            exit();
+        } else {
+            tracked.enter();
+        }
+    }
+
+    /**
+     * Stops tracking the calling thread's bookings.
+     */
+    public static void exit() {
+        CURRENT.remove();
+    }
+
+    /**
+     * @return The set the calling thread has entered, or null.
+     */
+    public static TrackedBookings current() {
+        return CURRENT.get();
+    }
+
+    public void add(int id) {
+        ids.add(id);
+    }
+
+    public void remove(int id) {
+        ids.remove(id);
+    }
+
+    /**
+     * Moves all the IDs of this set into another one, e.g. from a test to its test class.
+     *
+     * @param other The set receiving the IDs.
+     */
+    public void moveTo(TrackedBookings other) {
+        for (Integer id : ids) {
+            other.add(id);
+            ids.remove(id);
+        }
+    }
+
+    /**
+     * Removes and returns all the IDs, leaving the set empty.
+     *
+     * @return The IDs tracked until now.
+     */
+    public int[] drain() {
+        int[] drained = ids.stream().mapToInt(Integer::intValue).toArray();
+        for (int id : drained) {
+            ids.remove(id);
+        }
+        return drained;
+    }
+
+    public int size() {
+        return ids.size();
+    }
+}
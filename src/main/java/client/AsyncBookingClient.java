@@ -0,0 +1,414 @@
+package client;
+
+import capture.CaptureFilter;
+import capture.CapturedExchange;
+import cleanup.BookingTrackingFilter;
+import cleanup.TrackedBookings;
+import cluster.BookerInstance;
+import cluster.LoadBalancer;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import helpers.AuthenticationHelper;
+import metrics.EndpointMetrics;
+import metrics.EndpointMetricsFilter;
+import metrics.MetricsScope;
+import model.Booking;
+import model.Credentials;
+import shadow.ShadowIndexFilter;
+import specs.BaseSpec;
+import specs.ConnectionConfig;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static helpers.JsonSupport.BOOKING_WRITER;
+import static helpers.JsonSupport.MAPPER;
+
+/**
+ * Non-blocking booker client built on {@link HttpClient}, for throughput tests that need thousands of requests in
+ * flight without a thread per request. {@link load.LoadGenerator} sends its traffic through it when the load profile
+ * asks for the async client.
+ * <p>
+ * Calls return immediately with a {@link CompletableFuture}. At most {@code maxInFlight} requests are sent at once,
+ * further calls are queued and sent as earlier responses arrive, so a burst of calls does not open a connection per
+ * request.
+ * <p>
+ * The client does the bookkeeping the {@link BaseSpec} filters do for REST-assured requests. Requests are recorded
+ * in {@link EndpointMetrics}, in the {@link MetricsScope} the sending thread had entered and in the statistics of the
+ * booker instance they went to. Created bookings are tracked for cleanup in the {@link TrackedBookings} the sending
+ * thread had entered, the shadow indexes are kept in step, and the exchanges are captured when
+ * {@code booker.capture.file} is set. Tokens come from the cache of {@link AuthenticationHelper}, so they are shared
+ * with REST-assured requests to the same instance.
+ */
+public class AsyncBookingClient {
+
+    private static final String JSON = "application/json";
+
+    private final URI baseUri;
+    private final BookerInstance instance;
+    private final HttpClient httpClient;
+    private final Duration requestTimeout;
+    private final int maxInFlight;
+    private final boolean recordMetrics = EndpointMetrics.enabled();
+    private final boolean feedShadowIndex = ShadowIndexFilter.enabled();
+    private final CaptureFilter captureFilter = BaseSpec.captureFilter();
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger dispatchRequests = new AtomicInteger();
+    private final Queue<Runnable> pending = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Creates a client for the booker instance the calling thread sends its {@link BaseSpec} requests to, with the
+     * pool size and timeouts of {@link BaseSpec#connectionConfig()}. When requests are balanced over several
+     * instances, that is the instance the calling thread sticks to, or the first one for the other strategies.
+     */
+    public AsyncBookingClient() {
+        this(stickyInstance(), BaseSpec.connectionConfig());
+    }
+
+    /**
+     * @param baseUri The booker base URI, e.g. "http://localhost:3001".
+     * @param config  The maximum number of requests in flight ({@code maxTotal}) and the timeouts.
+     */
+    public AsyncBookingClient(URI baseUri, ConnectionConfig config) {
+        this(baseUri, null, newHttpClient(config), config);
+    }
+
+    /**
+     * Creates a client for one of the instances requests are balanced over, so that requests on a booking go to the
+     * instance holding it whatever the balancing strategy.
+     *
+     * @param instance The instance to send the requests to, or null for {@link BaseSpec#baseUri()}.
+     * @param config   The maximum number of requests in flight ({@code maxTotal}) and the timeouts.
+     */
+    public AsyncBookingClient(BookerInstance instance, ConnectionConfig config) {
+        this(instance == null
+            ? BaseSpec.baseUri()
+            : URI.create("http://" + instance.getHost() + ":" + instance.getPort()), instance, newHttpClient(config),
+            config);
+    }
+
+    /**
+     * Creates a client sending its requests through the given {@link HttpClient}, for tests.
+     */
+    AsyncBookingClient(URI baseUri, HttpClient httpClient, ConnectionConfig config) {
+        this(baseUri, null, httpClient, config);
+    }
+
+    private AsyncBookingClient(URI baseUri, BookerInstance instance, HttpClient httpClient, ConnectionConfig config) {
+        this.baseUri = baseUri;
+        this.instance = instance;
+        this.httpClient = httpClient;
+        this.requestTimeout = config.getSocketTimeout();
+        this.maxInFlight = config.getMaxTotal();
+    }
+
+    /**
+     * Creates a booking.
+     *
+     * @param booking The booking to create.
+     * @return The ID of the new booking, or a failed future if booker did not respond with 200 OK.
+     */
+    public CompletableFuture<Integer> createBooking(Booking booking) {
+        return send("POST", "/booking", "/booking", json(BOOKING_WRITER::writeValueAsBytes, booking), null)
+            .thenApply(response -> extract(response, "POST /booking", json -> json.path("bookingid").asInt()));
+    }
+
+    /**
+     * Retrieves a booking, leaving the validation of the response to the caller.
+     *
+     * @param bookingId ID of the booking to retrieve.
+     * @return The response to GET /booking/{id}.
+     */
+    public CompletableFuture<HttpResponse<byte[]>> getBooking(int bookingId) {
+        return send("GET", "/booking/{id}", "/booking/" + bookingId, null, null);
+    }
+
+    /**
+     * Replaces a booking, leaving the validation of the response to the caller.
+     *
+     * @param bookingId ID of the booking to update.
+     * @param booking   The new booking.
+     * @param token     The authentication token.
+     * @return The response to PUT /booking/{id}.
+     */
+    public CompletableFuture<HttpResponse<byte[]>> updateBooking(int bookingId, Booking booking, String token) {
+        return send("PUT", "/booking/{id}", "/booking/" + bookingId, json(BOOKING_WRITER::writeValueAsBytes, booking),
+            token);
+    }
+
+    /**
+     * Updates some fields of a booking, leaving the validation of the response to the caller.
+     *
+     * @param bookingId ID of the booking to update.
+     * @param fields    The fields to change, e.g. firstname and lastname.
+     * @param token     The authentication token.
+     * @return The response to PATCH /booking/{id}.
+     */
+    public CompletableFuture<HttpResponse<byte[]>> partialUpdateBooking(int bookingId, Map<String, ?> fields,
+                                                                        String token) {
+        return send("PATCH", "/booking/{id}", "/booking/" + bookingId, json(MAPPER::writeValueAsBytes, fields), token);
+    }
+
+    /**
+     * Deletes a booking, leaving the validation of the response to the caller.
+     *
+     * @param bookingId ID of the booking to delete.
+     * @param token     The authentication token.
+     * @return The response to DELETE /booking/{id}, 201 Created if the booking was deleted.
+     */
+    public CompletableFuture<HttpResponse<byte[]>> deleteBooking(int bookingId, String token) {
+        return send("DELETE", "/booking/{id}", "/booking/" + bookingId, null, token);
+    }
+
+    /**
+     * Gets an authentication token using default credentials.
+     *
+     * @return An authentication token.
+     */
+    public CompletableFuture<String> getAuthenticationToken() {
+        return getAuthenticationToken("admin", "password123");
+    }
+
+    /**
+     * Gets an authentication token from the cache of {@link AuthenticationHelper}, requesting one without blocking
+     * if none is cached for the client's instance. Concurrent calls share a single request to {@code /auth}.
+     *
+     * @param username The username for authentication.
+     * @param password The password for authentication.
+     * @return An authentication token, or a failed future if booker did not return one.
+     */
+    public CompletableFuture<String> getAuthenticationToken(String username, String password) {
+        Credentials credentials = Credentials.builder()
+            .username(username)
+            .password(password)
+            .build();
+        return AuthenticationHelper.getAuthenticationToken(credentials, instance, this::requestAuthenticationToken);
+    }
+
+    /**
+     * Removes the given token from the cache, so the next call requests a new one.
+     *
+     * @param token The token that is no longer accepted.
+     */
+    public void invalidateAuthenticationToken(String token) {
+        AuthenticationHelper.invalidateAuthenticationToken(token);
+    }
+
+    /**
+     * @return The number of requests sent and not yet answered.
+     */
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    private CompletableFuture<String> requestAuthenticationToken(Credentials credentials) {
+        return send("POST", "/auth", "/auth", json(MAPPER::writeValueAsBytes, credentials), null)
+            .thenApply(response -> extract(response, "POST /auth", json -> {
+                JsonNode token = json.get("token");
+                if (token == null) {
+                    throw new IllegalStateException("POST /auth returned no token: " + json);
+                }
+                return token.asText();
+            }));
+    }
+
+    private static <T> T extract(HttpResponse<byte[]> response, String endpoint, Function<JsonNode, T> extractor) {
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(endpoint + " returned " + response.statusCode() + ": "
+                + new String(response.body(), StandardCharsets.UTF_8));
+        }
+        try {
+            return extractor.apply(MAPPER.readTree(response.body()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Invalid JSON returned by " + endpoint, e);
+        }
+    }
+
+    /**
+     * Builds the request and queues it, see {@link #dispatch()}.
+     *
+     * @param template The path template the request is recorded under, e.g. "/booking/{id}".
+     * @param body     The JSON body, null for none.
+     * @param token    The authentication token sent as cookie, null for none.
+     */
+    private CompletableFuture<HttpResponse<byte[]>> send(String method, String template, String path, byte[] body,
+                                                         String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(baseUri.resolve(path))
+            .timeout(requestTimeout)
+            .header("Accept", JSON)
+            .method(method, body == null
+                ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofByteArray(body));
+        if (body != null) {
+            builder.header("Content-Type", JSON);
+        }
+        if (token != null) {
+            builder.header("Cookie", "token=" + token);
+        }
+        HttpRequest request = builder.build();
+        String endpoint = method + " " + template;
+        MetricsScope scope = MetricsScope.current();
+        TrackedBookings tracked = TrackedBookings.current();
+        String lane = captureFilter == null ? null : CaptureFilter.lane();
+
+        CompletableFuture<HttpResponse<byte[]>> result = new CompletableFuture<>();
+        pending.add(() -> {
+            long captureStart = captureFilter == null ? 0 : captureFilter.getJournal().elapsedMicros();
+            long start = System.nanoTime();
+            if (instance != null) {
+                instance.requestStarted();
+            }
+            CompletableFuture<HttpResponse<byte[]>> sent;
+            try {
+                sent = httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray());
+            } catch (RuntimeException e) {
+                sent = CompletableFuture.failedFuture(e);
+            }
+            sent.whenComplete((response, error) -> {
+                long latency = System.nanoTime() - start;
+                inFlight.decrementAndGet();
+                try {
+                    if (error != null) {
+                        if (instance != null) {
+                            instance.requestFailed();
+                        }
+                        result.completeExceptionally(error instanceof CompletionException ? error.getCause() : error);
+                        return;
+                    }
+                    try {
+                        recordResponse(request, endpoint, body, token, response, latency, scope, tracked,
+                            lane, captureStart);
+                    } finally {
+                        result.complete(response);
+                    }
+                } finally {
+                    dispatch();
+                }
+            });
+        });
+        dispatch();
+        return result;
+    }
+
+    /**
+     * Does what the metrics, tracking, shadow index and capture filters do for REST-assured requests.
+     */
+    private void recordResponse(HttpRequest request, String endpoint, byte[] body, String token,
+                                HttpResponse<byte[]> response, long latency, MetricsScope scope,
+                                TrackedBookings tracked, String lane, long captureStart) {
+        int status = response.statusCode();
+        byte[] responseBody = response.body();
+        String contentType = response.headers().firstValue("Content-Type").orElse(null);
+        if (instance != null) {
+            instance.requestCompleted(latency, responseBody.length, status);
+        }
+        if (recordMetrics) {
+            EndpointMetricsFilter.record(scope, endpoint, latency, responseBody.length, status);
+        }
+        if (tracked != null) {
+            BookingTrackingFilter.record(tracked, request.method(), request.uri().getPath(), status, contentType,
+                responseBody);
+        }
+        if (feedShadowIndex && (status == 200 || status == 201)) {
+            ShadowIndexFilter.record(request.method(), request.uri(), status, contentType, responseBody);
+        }
+        if (captureFilter != null) {
+            Map<String, String> headers = new LinkedHashMap<>();
+            headers.put("Accept", JSON);
+            if (body != null) {
+                headers.put("Content-Type", JSON);
+            }
+            if (token != null) {
+                headers.put("Cookie", "token=" + token);
+            }
+            URI uri = request.uri();
+            captureFilter.capture(CapturedExchange.builder()
+                .start(captureStart)
+                .lane(lane)
+                .method(request.method())
+                .path(uri.getRawQuery() == null ? uri.getRawPath() : uri.getRawPath() + "?" + uri.getRawQuery())
+                .headers(headers)
+                .body(body == null ? null : new String(body, StandardCharsets.UTF_8))
+                .status(status)
+                .latency(TimeUnit.NANOSECONDS.toMicros(latency)), new String(responseBody, StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Starts queued requests while there is room, without blocking. Whoever queues a request or completes one
+     * calls this, so a request queued while another thread held the last slot is picked up when that slot frees.
+     * <p>
+     * Only one caller runs the loop at a time, the others count a request to run it again and return. A request
+     * that fails synchronously completes inside the loop and calls this again, so a queue of failing requests is
+     * drained by the loop rather than by nesting one call per request.
+     */
+    private void dispatch() {
+        if (dispatchRequests.getAndIncrement() != 0) {
+            return;
+        }
+        int requests = 1;
+        do {
+            while (!pending.isEmpty()) {
+                int current = inFlight.get();
+                if (current >= maxInFlight) {
+                    break;
+                }
+                if (!inFlight.compareAndSet(current, current + 1)) {
+                    continue;
+                }
+                Runnable next = pending.poll();
+                if (next == null) {
+                    inFlight.decrementAndGet();
+                } else {
+                    next.run();
+                }
+            }
+            requests = dispatchRequests.addAndGet(-requests);
+        } while (requests != 0);
+    }
+
+    private static HttpClient newHttpClient(ConnectionConfig config) {
+        return HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(config.getConnectTimeout())
+            .build();
+    }
+
+    private static BookerInstance stickyInstance() {
+        LoadBalancer loadBalancer = BaseSpec.loadBalancer();
+        if (loadBalancer == null) {
+            return null;
+        }
+        BookerInstance sticky = loadBalancer.stickyInstance();
+        return sticky != null ? sticky : loadBalancer.getInstances().get(0);
+    }
+
+    private static <T> byte[] json(JsonWriter<T> writer, T value) {
+        try {
+            return writer.write(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException("Unable to serialize " + value, e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface JsonWriter<T> {
+        byte[] write(T value) throws JsonProcessingException;
+    }
+}
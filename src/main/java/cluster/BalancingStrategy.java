@@ -0,0 +1,37 @@
+package cluster;
+
+import java.util.Locale;
+
+/**
+ * How {@link LoadBalancer} picks the booker instance for a request.
+ */
+public enum BalancingStrategy {
+
+    /**
+     * Each thread sends all its requests to one instance, picked round-robin on its first request. As every instance
+     * has its own data and tokens, this is the only strategy under which a test can read back a booking it created
+     * without pinning itself to an instance.
+     */
+    STICKY,
+
+    /**
+     * Every request goes to the next instance in turn, unless the thread is pinned with {@link LoadBalancer#pin}.
+     * {@link load.LoadGenerator} pins each request on a booking to the instance that created it.
+     */
+    ROUND_ROBIN,
+
+    /**
+     * Every request goes to the instance with the fewest requests in flight, unless the thread is pinned like under
+     * {@link #ROUND_ROBIN}.
+     */
+    LEAST_IN_FLIGHT;
+
+    public static final String PROPERTY = "booker.balancing";
+
+    /**
+     * @return The strategy set with the {@code booker.balancing} system property, sticky by default.
+     */
+    public static BalancingStrategy fromSystemProperty() {
+        return valueOf(System.getProperty(PROPERTY, "sticky").trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+    }
+}
@@ -0,0 +1,71 @@
+package cluster;
+
+import metrics.EndpointStats;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One booker instance behind the {@link LoadBalancer}, with the statistics of the requests it served.
+ */
+public class BookerInstance {
+
+    private final int index;
+    private final String host;
+    private final int port;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final EndpointStats stats = new EndpointStats();
+
+    public BookerInstance(int index, String host, int port) {
+        this.index = index;
+        this.host = host;
+        this.port = port;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    /**
+     * @return The number of requests sent to this instance and not yet answered.
+     */
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * @return The latency, response size and status code of the requests this instance served.
+     */
+    public EndpointStats stats() {
+        return stats;
+    }
+
+    /**
+     * Counts a request sent to this instance, by the {@link LoadBalancingFilter} or a client such as
+     * {@link client.AsyncBookingClient}. Must be followed by {@link #requestCompleted} or {@link #requestFailed}.
+     */
+    public void requestStarted() {
+        inFlight.incrementAndGet();
+    }
+
+    public void requestCompleted(long latencyNanos, long sizeBytes, int status) {
+        inFlight.decrementAndGet();
+        stats.record(latencyNanos, sizeBytes, status);
+    }
+
+    public void requestFailed() {
+        inFlight.decrementAndGet();
+    }
+
+    @Override
+    public String toString() {
+        return "#" + index + " " + host + ":" + port;
+    }
+}
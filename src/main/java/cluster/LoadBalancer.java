@@ -0,0 +1,134 @@
+package cluster;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Spreads the requests sent through {@link specs.BaseSpec} over several booker instances, see
+ * {@link BalancingStrategy}. The per-instance statistics are printed with {@link #print(PrintStream)}.
+ * <p>
+ * Threads pinned to an instance with {@link #pin(BookerInstance)} send all their requests to it whatever the
+ * strategy. Helpers that hand work to other threads pin them to the caller's {@link #stickyInstance()}, so the
+ * bookings they create land on the instance the caller reads from.
+ */
+public class LoadBalancer {
+
+    private static final ThreadLocal<BookerInstance> PINNED = new ThreadLocal<>();
+
+    private final List<BookerInstance> instances;
+    private final BalancingStrategy strategy;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public LoadBalancer(List<BookerInstance> instances, BalancingStrategy strategy) {
+        if (instances.isEmpty()) {
+            throw new IllegalArgumentException("At least one booker instance is required");
+        }
+        this.instances = List.copyOf(instances);
+        this.strategy = strategy;
+    }
+
+    /**
+     * Pins the calling thread to an instance, or unpins it if null.
+     *
+     * @param instance The instance to send all the thread's requests to, or null.
+     */
+    public static void pin(BookerInstance instance) {
+        if (instance == null) {
+            PINNED.remove();
+        } else {
+            PINNED.set(instance);
+        }
+    }
+
+    /**
+     * @return The instance the calling thread is pinned to, or null.
+     */
+    public static BookerInstance pinned() {
+        return PINNED.get();
+    }
+
+    public List<BookerInstance> getInstances() {
+        return instances;
+    }
+
+    public BalancingStrategy getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * @return The instance the calling thread sticks to under the sticky strategy, picking one if it has none yet,
+     * or null for the other strategies.
+     */
+    public BookerInstance stickyInstance() {
+        BookerInstance pinned = PINNED.get();
+        if (pinned != null || strategy != BalancingStrategy.STICKY) {
+            return pinned;
+        }
+        pinned = nextInstance();
+        PINNED.set(pinned);
+        return pinned;
+    }
+
+    /**
+     * @return The instance the calling thread's next request goes to.
+     */
+    public BookerInstance choose() {
+        BookerInstance pinned = PINNED.get();
+        if (pinned != null) {
+            return pinned;
+        }
+        return switch (strategy) {
+            case STICKY -> stickyInstance();
+            case ROUND_ROBIN -> nextInstance();
+            case LEAST_IN_FLIGHT -> leastInFlight();
+        };
+    }
+
+    private BookerInstance nextInstance() {
+        return instances.get(Math.floorMod(next.getAndIncrement(), instances.size()));
+    }
+
+    private BookerInstance leastInFlight() {
+        // Start the scan at a rotating offset, so ties don't all go to the first instance
+        int offset = next.getAndIncrement();
+        BookerInstance least = null;
+        for (int i = 0; i < instances.size(); i++) {
+            BookerInstance candidate = instances.get(Math.floorMod(offset + i, instances.size()));
+            if (least == null || candidate.inFlight() < least.inFlight()) {
+                least = candidate;
+            }
+        }
+        return least;
+    }
+
+    /**
+     * Prints one line per instance with request count, requests in flight, latency percentiles in milliseconds and
+     * status codes.
+     *
+     * @param out The stream to print to.
+     */
+    public void print(PrintStream out) {
+        String format = "%-28s %9s %9s %9s %9s %9s %9s  %s%n";
+        out.printf("Booker instances (%s):%n", strategy.name().toLowerCase().replace('_', '-'));
+        out.printf(format, "Instance", "Requests", "In flight", "p50 ms", "p95 ms", "p99 ms", "max ms", "Statuses");
+        for (BookerInstance instance : instances) {
+            Histogram latencies = instance.stats().latencies();
+            out.printf(format,
+                instance,
+                latencies.getTotalCount(),
+                instance.inFlight(),
+                millis(latencies.getValueAtPercentile(50)),
+                millis(latencies.getValueAtPercentile(95)),
+                millis(latencies.getValueAtPercentile(99)),
+                millis(latencies.getMaxValue()),
+                instance.stats().statuses());
+        }
+    }
+
+    private static String millis(long micros) {
+        return String.format("%.2f", micros / 1000.0);
+    }
+}
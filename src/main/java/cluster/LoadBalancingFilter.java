@@ -0,0 +1,47 @@
+package cluster;
+
+import io.restassured.filter.FilterContext;
+import io.restassured.filter.OrderedFilter;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import metrics.EndpointMetrics;
+
+/**
+ * Points each request at the booker instance chosen by the {@link LoadBalancer}, and records the request in the
+ * instance's statistics. Runs before the other filters, so logging shows the instance actually called.
+ */
+public class LoadBalancingFilter implements OrderedFilter {
+
+    private final LoadBalancer loadBalancer;
+
+    public LoadBalancingFilter(LoadBalancer loadBalancer) {
+        this.loadBalancer = loadBalancer;
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec,
+                           FilterableResponseSpecification responseSpec,
+                           FilterContext ctx) {
+        BookerInstance instance = loadBalancer.choose();
+        requestSpec.baseUri("http://" + instance.getHost()).port(instance.getPort());
+
+        instance.requestStarted();
+        long start = System.nanoTime();
+        Response response;
+        try {
+            response = ctx.next(requestSpec, responseSpec);
+        } catch (RuntimeException | Error e) {
+            instance.requestFailed();
+            throw e;
+        }
+        instance.requestCompleted(System.nanoTime() - start, EndpointMetrics.responseSize(response),
+            response.getStatusCode());
+        return response;
+    }
+
+    @Override
+    public int getOrder() {
+        return HIGHEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,35 @@
+package consistency;
+
+/**
+ * A violation of linearizability found by the {@link ConsistencyChecker}.
+ *
+ * @param type        The kind of violation.
+ * @param bookingId   The booking it was found on.
+ * @param description The operations involved.
+ */
+public record Anomaly(Type type, int bookingId, String description) {
+
+    public enum Type {
+        /** A read returned a value no create, update or partial update stored. */
+        UNKNOWN_VALUE,
+        /** A read returned the value of a write sent after the read completed. */
+        FUTURE_READ,
+        /** A read returned a value overwritten by a write that completed before the read was sent. */
+        STALE_READ,
+        /** Once every write had completed, a read still returned a value that had been overwritten. */
+        LOST_UPDATE,
+        /** A read returned an older value than an earlier read, which completed before it was sent. */
+        READ_INVERSION,
+        /** A read returned fields stored by different writes, e.g. the first name of one and the last name of another. */
+        TORN_WRITE,
+        /** A booking was read or changed after a delete of it had completed. */
+        RESURRECTED,
+        /** A booking was reported missing, although no delete of it had been sent. */
+        LOST_BOOKING
+    }
+
+    @Override
+    public String toString() {
+        return type + " on booking " + bookingId + ": " + description;
+    }
+}
@@ -0,0 +1,234 @@
+package consistency;
+
+import load.Operation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Checks a {@link History} for operations that no linearizable booking store could have produced.
+ * <p>
+ * Each booking holds two registers: its names, stored by creates, updates and partial updates, and its details,
+ * stored by creates and updates only. As every write stores a unique tag, each value read identifies the write that
+ * stored it, and a register is only linearizable if no read
+ * <ul>
+ *     <li>returns a value no acknowledged or indeterminate write stored,</li>
+ *     <li>returns the value of a write sent after the read completed,</li>
+ *     <li>returns a value overwritten by a write that completed before the read was sent (last writer wins), or</li>
+ *     <li>returns an older value than a read that completed before it was sent.</li>
+ * </ul>
+ * On top of that a read must not mix the fields of several writes, and a booking must neither be found after a
+ * delete of it completed nor be missing before a delete of it was sent.
+ * <p>
+ * Writes without a response or with a 5xx are indeterminate: they may take effect at any time after they were sent,
+ * so their values may be read, but they never make another value stale. Each check sweeps the operations of a
+ * booking once in invoke and complete order, so a history is checked in O(n log n).
+ */
+public final class ConsistencyChecker {
+
+    private ConsistencyChecker() {
+    }
+
+    private enum Register {
+        NAMES(HistoryEntry::firstname, EnumSet.of(Operation.CREATE, Operation.UPDATE, Operation.PARTIAL_UPDATE)),
+        DETAILS(HistoryEntry::additionalNeeds, EnumSet.of(Operation.CREATE, Operation.UPDATE));
+
+        private final Function<HistoryEntry, String> value;
+        private final Set<Operation> writtenBy;
+
+        Register(Function<HistoryEntry, String> value, Set<Operation> writtenBy) {
+            this.value = value;
+            this.writtenBy = writtenBy;
+        }
+
+        @Override
+        public String toString() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * A successful read and the write that stored the value it returned.
+     */
+    private record Traced(HistoryEntry read, HistoryEntry write) {
+    }
+
+    /**
+     * @param history The operations of a run, in any order.
+     * @return The anomalies found, grouped by booking, empty if the history is linearizable.
+     */
+    public static List<Anomaly> check(List<HistoryEntry> history) {
+        Map<Integer, List<HistoryEntry>> byBooking = new TreeMap<>();
+        for (HistoryEntry entry : history) {
+            byBooking.computeIfAbsent(entry.bookingId(), id -> new ArrayList<>()).add(entry);
+        }
+        List<Anomaly> anomalies = new ArrayList<>();
+        byBooking.forEach((bookingId, operations) -> {
+            // Each read is reported once, even when both of its registers are out of date
+            Set<HistoryEntry> flagged = Collections.newSetFromMap(new IdentityHashMap<>());
+            checkDeletes(bookingId, operations, anomalies);
+            checkTornReads(bookingId, operations, flagged, anomalies);
+            for (Register register : Register.values()) {
+                checkRegister(bookingId, register, operations, flagged, anomalies);
+            }
+        });
+        return anomalies;
+    }
+
+    private static void checkDeletes(int bookingId, List<HistoryEntry> operations, List<Anomaly> anomalies) {
+        HistoryEntry firstDelete = null;
+        long firstDeleteSent = Long.MAX_VALUE;
+        for (HistoryEntry operation : operations) {
+            if (operation.operation() == Operation.DELETE && (operation.applied() || operation.indeterminate())) {
+                firstDeleteSent = Math.min(firstDeleteSent, operation.invoke());
+                if (operation.applied() && (firstDelete == null || operation.complete() < firstDelete.complete())) {
+                    firstDelete = operation;
+                }
+            }
+        }
+        for (HistoryEntry operation : operations) {
+            boolean found = operation.isWrite() ? operation.applied() : operation.status() == 200;
+            boolean missing = operation.status() == 404 || (operation.isWrite() && operation.status() == 405);
+            if (found && firstDelete != null && operation != firstDelete
+                && firstDelete.complete() < operation.invoke()) {
+                anomalies.add(new Anomaly(Anomaly.Type.RESURRECTED, bookingId,
+                    operation + " after " + firstDelete));
+            } else if (missing && firstDeleteSent >= operation.complete()) {
+                anomalies.add(new Anomaly(Anomaly.Type.LOST_BOOKING, bookingId,
+                    operation + " before any delete was sent"));
+            }
+        }
+    }
+
+    private static void checkTornReads(int bookingId, List<HistoryEntry> operations, Set<HistoryEntry> flagged,
+                                       List<Anomaly> anomalies) {
+        Map<String, HistoryEntry> writers = writers(operations, Register.NAMES.writtenBy);
+        for (HistoryEntry read : reads(operations)) {
+            if (!Objects.equals(read.firstname(), read.lastname())) {
+                anomalies.add(new Anomaly(Anomaly.Type.TORN_WRITE, bookingId,
+                    read + " has first name " + read.firstname() + " but last name " + read.lastname()));
+                flagged.add(read);
+                continue;
+            }
+            HistoryEntry names = writers.get(read.firstname());
+            HistoryEntry details = writers.get(read.additionalNeeds());
+            if (names != null && details != null && names != details
+                && names.effectiveComplete() < details.invoke()) {
+                anomalies.add(new Anomaly(Anomaly.Type.TORN_WRITE, bookingId,
+                    read + " has the names of " + names + " but the details of the later " + details));
+                flagged.add(read);
+            }
+        }
+    }
+
+    private static void checkRegister(int bookingId, Register register, List<HistoryEntry> operations,
+                                      Set<HistoryEntry> flagged, List<Anomaly> anomalies) {
+        Map<String, HistoryEntry> writers = writers(operations, register.writtenBy);
+        List<HistoryEntry> applied = new ArrayList<>();
+        long lastWriteComplete = Long.MIN_VALUE;
+        for (HistoryEntry write : writers.values()) {
+            if (write.applied()) {
+                applied.add(write);
+            }
+            if (write.applied() || write.indeterminate()) {
+                lastWriteComplete = Math.max(lastWriteComplete, write.complete());
+            }
+        }
+
+        List<Traced> traced = new ArrayList<>();
+        for (HistoryEntry read : reads(operations)) {
+            String value = register.value.apply(read);
+            HistoryEntry write = writers.get(value);
+            if (flagged.contains(read)) {
+                continue;
+            }
+            if (write == null) {
+                anomalies.add(new Anomaly(Anomaly.Type.UNKNOWN_VALUE, bookingId,
+                    read + " returned " + register + " " + value + ", which no write of this booking stored"));
+            } else if (!write.applied() && !write.indeterminate()) {
+                anomalies.add(new Anomaly(Anomaly.Type.UNKNOWN_VALUE, bookingId,
+                    read + " returned " + register + " " + value + " of the rejected " + write));
+            } else if (write.invoke() > read.complete()) {
+                anomalies.add(new Anomaly(Anomaly.Type.FUTURE_READ, bookingId,
+                    read + " returned " + register + " of the later " + write));
+            } else {
+                traced.add(new Traced(read, write));
+                continue;
+            }
+            flagged.add(read);
+        }
+
+        // Last writer wins: the latest write completed before a read was sent must not have overwritten its value
+        applied.sort(Comparator.comparingLong(HistoryEntry::complete));
+        traced.sort(Comparator.comparingLong(t -> t.read().invoke()));
+        HistoryEntry latest = null;
+        int next = 0;
+        for (Traced t : traced) {
+            while (next < applied.size() && applied.get(next).complete() < t.read().invoke()) {
+                if (latest == null || applied.get(next).invoke() > latest.invoke()) {
+                    latest = applied.get(next);
+                }
+                next++;
+            }
+            if (latest != null && !flagged.contains(t.read()) && t.write().effectiveComplete() < latest.invoke()) {
+                Anomaly.Type type = t.read().invoke() > lastWriteComplete
+                    ? Anomaly.Type.LOST_UPDATE
+                    : Anomaly.Type.STALE_READ;
+                anomalies.add(new Anomaly(type, bookingId,
+                    t.read() + " returned " + register + " of " + t.write() + ", overwritten by " + latest));
+                flagged.add(t.read());
+            }
+        }
+
+        // A read must not return an older value than a read that completed before it was sent
+        List<Traced> byComplete = new ArrayList<>(traced);
+        byComplete.sort(Comparator.comparingLong(t -> t.read().complete()));
+        Traced newest = null;
+        next = 0;
+        for (Traced t : traced) {
+            while (next < byComplete.size() && byComplete.get(next).read().complete() < t.read().invoke()) {
+                if (newest == null || byComplete.get(next).write().invoke() > newest.write().invoke()) {
+                    newest = byComplete.get(next);
+                }
+                next++;
+            }
+            if (newest != null && !flagged.contains(t.read())
+                && t.write().effectiveComplete() < newest.write().invoke()) {
+                anomalies.add(new Anomaly(Anomaly.Type.READ_INVERSION, bookingId,
+                    t.read() + " returned " + register + " of " + t.write() + ", older than " + newest.write()
+                        + " returned by the earlier " + newest.read()));
+                flagged.add(t.read());
+            }
+        }
+    }
+
+    /**
+     * @return The writes of the given operations, by the tag they stored.
+     */
+    private static Map<String, HistoryEntry> writers(List<HistoryEntry> operations, Set<Operation> writtenBy) {
+        Map<String, HistoryEntry> writers = new HashMap<>();
+        for (HistoryEntry operation : operations) {
+            if (writtenBy.contains(operation.operation()) && operation.firstname() != null) {
+                writers.put(operation.firstname(), operation);
+            }
+        }
+        return writers;
+    }
+
+    private static List<HistoryEntry> reads(List<HistoryEntry> operations) {
+        return operations.stream()
+            .filter(operation -> operation.operation() == Operation.GET && operation.status() == 200)
+            .toList();
+    }
+}
@@ -0,0 +1,59 @@
+package consistency;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The operations of a {@link MutationStress} run, recorded concurrently by its workers.
+ * <p>
+ * Times come from {@link System#nanoTime()}, which every thread of the JVM reads from the same clock, so the
+ * invoke and complete times of operations recorded by different workers can be compared.
+ */
+public class History {
+
+    private final long origin = System.nanoTime();
+    private final Queue<HistoryEntry> entries = new ConcurrentLinkedQueue<>();
+    private final AtomicLong writes = new AtomicLong();
+
+    /**
+     * @return The nanoseconds elapsed since the history was created, the time base of {@link HistoryEntry}.
+     */
+    public long now() {
+        return System.nanoTime() - origin;
+    }
+
+    /**
+     * @return A tag no other write of this history stores, e.g. "w17".
+     */
+    public String nextWriteTag() {
+        return "w" + writes.incrementAndGet();
+    }
+
+    public void record(HistoryEntry entry) {
+        entries.add(entry);
+    }
+
+    /**
+     * @return The operations recorded so far, by invoke time.
+     */
+    public List<HistoryEntry> entries() {
+        List<HistoryEntry> sorted = new ArrayList<>(entries);
+        sorted.sort(Comparator.comparingLong(HistoryEntry::invoke));
+        return sorted;
+    }
+
+    /**
+     * @return The IDs of the bookings operated on, in no particular order.
+     */
+    public int[] bookingIds() {
+        return entries.stream().mapToInt(HistoryEntry::bookingId).distinct().toArray();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+}
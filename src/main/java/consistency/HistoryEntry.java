@@ -0,0 +1,69 @@
+package consistency;
+
+import load.Operation;
+
+/**
+ * One operation of a {@link MutationStress} run, from the moment it was sent until its response was read.
+ * <p>
+ * Every write stores a unique tag, such as "w17", in the fields it changes: a create or update in the first name,
+ * last name and additional needs, a partial update in the first and last name only. Writes carry the tag they
+ * stored, reads the fields they got back, so each value read can be traced to the write that stored it.
+ *
+ * @param worker          The worker that sent the operation, 0 for the driver.
+ * @param operation       The operation.
+ * @param bookingId       The booking operated on.
+ * @param invoke          When the request was sent, in nanoseconds since the start of the {@link History}.
+ * @param complete        When the response was read, or failed, in nanoseconds since the start of the history.
+ * @param status          The HTTP status code, 0 if no response was received.
+ * @param firstname       The first name written or read, null if none.
+ * @param lastname        The last name written or read, null if none.
+ * @param additionalNeeds The additional needs written or read, null if none.
+ */
+public record HistoryEntry(int worker,
+                           Operation operation,
+                           int bookingId,
+                           long invoke,
+                           long complete,
+                           int status,
+                           String firstname,
+                           String lastname,
+                           String additionalNeeds) {
+
+    /**
+     * @return Whether the operation changes the booking, as opposed to reading it.
+     */
+    public boolean isWrite() {
+        return operation != Operation.GET;
+    }
+
+    /**
+     * @return Whether the write was acknowledged by booker, which answers a delete with 201 and any other write with
+     * 200.
+     */
+    public boolean applied() {
+        return isWrite() && status == (operation == Operation.DELETE ? 201 : 200);
+    }
+
+    /**
+     * @return Whether the outcome of the write is unknown: no response was received, or booker failed with a 5xx. The
+     * write may have taken effect at any time after it was sent.
+     */
+    public boolean indeterminate() {
+        return isWrite() && (status == 0 || status >= 500);
+    }
+
+    /**
+     * @return The time the operation is known to have taken effect by: its completion if applied, never if
+     * indeterminate.
+     */
+    public long effectiveComplete() {
+        return indeterminate() ? Long.MAX_VALUE : complete;
+    }
+
+    @Override
+    public String toString() {
+        String value = firstname == null ? "" : " " + firstname;
+        return String.format("%s%s on %d by worker %d [%.3f-%.3f ms] -> %s", operation, value, bookingId, worker,
+            invoke / 1e6, complete / 1e6, status == 0 ? "no response" : String.valueOf(status));
+    }
+}
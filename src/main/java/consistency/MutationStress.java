@@ -0,0 +1,204 @@
+package consistency;
+
+import builders.BookingBuilder;
+import cleanup.TrackedBookings;
+import cluster.BookerInstance;
+import cluster.LoadBalancer;
+import helpers.BookingHelper;
+import io.restassured.response.Response;
+import load.Operation;
+import load.UserThreads;
+import model.Booking;
+import org.apache.http.HttpStatus;
+import specs.BaseSpec;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static helpers.AuthenticationHelper.getAuthenticationToken;
+import static helpers.AuthenticationHelper.invalidateAuthenticationToken;
+
+/**
+ * Hammers a few bookings with concurrent gets, updates, partial updates and deletes from many workers, records
+ * every operation in a {@link History} and checks it with the {@link ConsistencyChecker}.
+ * <p>
+ * All workers pick their bookings from the same small set, so most operations race with others on the same booking.
+ * When a delete succeeds, the worker creates a new booking in its place, while the other workers may still be
+ * operating on the deleted one. Once the run is over, every booking is read one last time, so a write lost after
+ * all workers finished shows up as well.
+ * <p>
+ * Requests are sent through {@link BookingHelper}, to the booker instance the calling thread uses, and the
+ * bookings are tracked for cleanup like the caller's. Workers run on virtual threads where the JVM supports them,
+ * see {@link UserThreads}.
+ */
+public class MutationStress {
+
+    private static final Operation[] OPERATIONS =
+        {Operation.GET, Operation.UPDATE, Operation.PARTIAL_UPDATE, Operation.DELETE};
+
+    private final StressProfile profile;
+    private final int[] cumulativeWeights = new int[OPERATIONS.length];
+
+    public MutationStress(StressProfile profile) {
+        if (profile.getMix().getOrDefault(Operation.CREATE, 0) > 0) {
+            throw new IllegalArgumentException("Creates are not part of the stress mix, each deleted booking is "
+                + "replaced by a new one");
+        }
+        if (profile.getWorkers() < 1 || profile.getBookings() < 1) {
+            throw new IllegalArgumentException("A stress run needs at least one worker and one booking");
+        }
+        this.profile = profile;
+
+        int total = 0;
+        for (int i = 0; i < OPERATIONS.length; i++) {
+            total += profile.getMix().getOrDefault(OPERATIONS[i], 0);
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    /**
+     * Creates the bookings, runs the workers for the configured duration, reads every booking once more and checks
+     * the history.
+     *
+     * @return The history and the anomalies found in it.
+     * @throws InterruptedException If interrupted while waiting for the workers.
+     */
+    public StressResult run() throws InterruptedException {
+        History history = new History();
+        AtomicIntegerArray bookings = new AtomicIntegerArray(profile.getBookings());
+        for (int slot = 0; slot < bookings.length(); slot++) {
+            bookings.set(slot, create(history, 0));
+        }
+
+        TrackedBookings tracked = TrackedBookings.current();
+        LoadBalancer loadBalancer = BaseSpec.loadBalancer();
+        BookerInstance instance = loadBalancer == null ? null : loadBalancer.stickyInstance();
+        long start = System.nanoTime();
+        long deadline = start + profile.getDuration().toNanos();
+
+        ExecutorService executor = UserThreads.newUserExecutor(profile.getWorkers());
+        for (int i = 1; i <= profile.getWorkers(); i++) {
+            int worker = i;
+            executor.execute(() -> {
+                TrackedBookings.enter(tracked);
+                LoadBalancer.pin(instance);
+                try {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline && !Thread.currentThread().isInterrupted()) {
+                        step(history, bookings, worker, random);
+                    }
+                } finally {
+                    TrackedBookings.exit();
+                    LoadBalancer.pin(null);
+                }
+            });
+        }
+        executor.shutdown();
+        if (!executor.awaitTermination(profile.getDuration().toMinutes() + 5, TimeUnit.MINUTES)) {
+            executor.shutdownNow();
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        for (int bookingId : history.bookingIds()) {
+            read(history, 0, bookingId);
+        }
+        List<HistoryEntry> entries = history.entries();
+        return new StressResult(entries, ConsistencyChecker.check(entries), elapsed);
+    }
+
+    private void step(History history, AtomicIntegerArray bookings, int worker, ThreadLocalRandom random) {
+        Operation operation = pick(random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]));
+        int slot = random.nextInt(bookings.length());
+        int bookingId = bookings.get(slot);
+        if (operation == Operation.GET) {
+            read(history, worker, bookingId);
+        } else if (write(history, worker, operation, bookingId) == HttpStatus.SC_CREATED
+            && operation == Operation.DELETE) {
+            try {
+                bookings.compareAndSet(slot, bookingId, create(history, worker));
+            } catch (RuntimeException | AssertionError e) {
+                // The slot keeps the deleted booking, operations on it are then expected to find it missing
+            }
+        }
+    }
+
+    private Operation pick(int value) {
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (value < cumulativeWeights[i]) {
+                return OPERATIONS[i];
+            }
+        }
+        return OPERATIONS[OPERATIONS.length - 1];
+    }
+
+    private static int create(History history, int worker) {
+        String tag = history.nextWriteTag();
+        long invoke = history.now();
+        int bookingId = BookingHelper.createBooking(tagged(tag));
+        history.record(new HistoryEntry(worker, Operation.CREATE, bookingId, invoke, history.now(), HttpStatus.SC_OK,
+            tag, tag, tag));
+        return bookingId;
+    }
+
+    private static void read(History history, int worker, int bookingId) {
+        long invoke = history.now();
+        Response response;
+        try {
+            response = BookingHelper.getBooking(bookingId);
+        } catch (RuntimeException | AssertionError e) {
+            history.record(new HistoryEntry(worker, Operation.GET, bookingId, invoke, history.now(), 0,
+                null, null, null));
+            return;
+        }
+        long complete = history.now();
+        Booking booking = response.statusCode() == HttpStatus.SC_OK ? response.as(Booking.class) : new Booking();
+        history.record(new HistoryEntry(worker, Operation.GET, bookingId, invoke, complete, response.statusCode(),
+            booking.getFirstname(), booking.getLastname(), booking.getAdditionalNeeds()));
+    }
+
+    /**
+     * @return The status code of the response, 0 if none was received.
+     */
+    private static int write(History history, int worker, Operation operation, int bookingId) {
+        String tag = operation == Operation.DELETE ? null : history.nextWriteTag();
+        String token = null;
+        long invoke = history.now();
+        int status;
+        try {
+            token = getAuthenticationToken();
+            invoke = history.now();
+            Response response = switch (operation) {
+                case UPDATE -> BookingHelper.updateBooking(bookingId, tagged(tag), token);
+                case PARTIAL_UPDATE -> BookingHelper.partialUpdateBooking(bookingId,
+                    Map.of("firstname", tag, "lastname", tag), token);
+                case DELETE -> BookingHelper.deleteBooking(bookingId, token);
+                default -> throw new IllegalArgumentException(operation + " is not a write");
+            };
+            status = response.statusCode();
+        } catch (RuntimeException | AssertionError e) {
+            status = 0;
+        }
+        history.record(new HistoryEntry(worker, operation, bookingId, invoke, history.now(), status,
+            tag, tag, operation == Operation.UPDATE ? tag : null));
+        if (status == HttpStatus.SC_FORBIDDEN) {
+            invalidateAuthenticationToken(token);
+        }
+        return status;
+    }
+
+    /**
+     * @return A random booking storing the tag in its names and additional needs.
+     */
+    private static Booking tagged(String tag) {
+        Booking booking = new BookingBuilder().build();
+        booking.setFirstname(tag);
+        booking.setLastname(tag);
+        booking.setAdditionalNeeds(tag);
+        return booking;
+    }
+}
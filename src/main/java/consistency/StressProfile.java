@@ -0,0 +1,53 @@
+package consistency;
+
+import load.LoadProfile;
+import load.Operation;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Describes a {@link MutationStress} run: how many workers hammer how few bookings, for how long and with which mix
+ * of operations.
+ * <p>
+ * {@link #fromSystemProperties()} reads the profile from the following system properties:
+ * <ul>
+ *     <li>{@code booker.stress.duration} - run time in seconds (10)</li>
+ *     <li>{@code booker.stress.workers} - number of concurrent workers (16)</li>
+ *     <li>{@code booker.stress.bookings} - number of bookings shared by all workers (4)</li>
+ *     <li>{@code booker.stress.mix} - relative weight of each operation
+ *         ("get=50,update=20,partial_update=20,delete=2")</li>
+ * </ul>
+ */
+@Getter
+@Builder
+public class StressProfile {
+
+    public static final String DEFAULT_MIX = "get=50,update=20,partial_update=20,delete=2";
+
+    @Builder.Default
+    private final Duration duration = Duration.ofSeconds(10);
+
+    @Builder.Default
+    private final int workers = 16;
+
+    @Builder.Default
+    private final int bookings = 4;
+
+    @Builder.Default
+    private final Map<Operation, Integer> mix = LoadProfile.parseMix(DEFAULT_MIX);
+
+    /**
+     * @return A profile built from the {@code booker.stress.*} system properties.
+     */
+    public static StressProfile fromSystemProperties() {
+        return StressProfile.builder()
+            .duration(Duration.ofSeconds(Long.getLong("booker.stress.duration", 10)))
+            .workers(Integer.getInteger("booker.stress.workers", 16))
+            .bookings(Integer.getInteger("booker.stress.bookings", 4))
+            .mix(LoadProfile.parseMix(System.getProperty("booker.stress.mix", DEFAULT_MIX)))
+            .build();
+    }
+}
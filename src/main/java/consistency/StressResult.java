@@ -0,0 +1,79 @@
+package consistency;
+
+import load.Operation;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The history of a {@link MutationStress} run and the anomalies the {@link ConsistencyChecker} found in it.
+ */
+public class StressResult {
+
+    private static final int PRINTED_ANOMALIES = 20;
+
+    private final List<HistoryEntry> history;
+    private final List<Anomaly> anomalies;
+    private final Duration elapsed;
+
+    public StressResult(List<HistoryEntry> history, List<Anomaly> anomalies, Duration elapsed) {
+        this.history = history;
+        this.anomalies = anomalies;
+        this.elapsed = elapsed;
+    }
+
+    /**
+     * @return Every operation of the run, by invoke time.
+     */
+    public List<HistoryEntry> getHistory() {
+        return history;
+    }
+
+    /**
+     * @return The anomalies found, empty if the history is linearizable.
+     */
+    public List<Anomaly> getAnomalies() {
+        return anomalies;
+    }
+
+    /**
+     * @return The time the workers ran, excluding the creation and final read of the bookings.
+     */
+    public Duration getElapsed() {
+        return elapsed;
+    }
+
+    /**
+     * Prints the number of operations per endpoint and status code, then the number of anomalies per type and the
+     * first {@value #PRINTED_ANOMALIES} anomalies.
+     *
+     * @param out The stream to print to.
+     */
+    public void print(PrintStream out) {
+        Map<Operation, Map<Integer, Integer>> statuses = new EnumMap<>(Operation.class);
+        for (HistoryEntry entry : history) {
+            statuses.computeIfAbsent(entry.operation(), operation -> new TreeMap<>())
+                .merge(entry.status(), 1, Integer::sum);
+        }
+        String format = "%-22s %9s  %s%n";
+        out.printf(format, "Endpoint", "Requests", "Statuses (0 = no response)");
+        statuses.forEach((operation, counts) -> out.printf(format, operation.endpoint(),
+            counts.values().stream().mapToInt(Integer::intValue).sum(), counts));
+
+        long bookings = history.stream().mapToInt(HistoryEntry::bookingId).distinct().count();
+        out.printf("Checked %d operations on %d bookings, run for %.1f s%n", history.size(), bookings,
+            elapsed.toNanos() / 1e9);
+        if (anomalies.isEmpty()) {
+            out.println("No anomalies found");
+            return;
+        }
+        Map<Anomaly.Type, Integer> types = new EnumMap<>(Anomaly.Type.class);
+        anomalies.forEach(anomaly -> types.merge(anomaly.type(), 1, Integer::sum));
+        out.println("Found " + anomalies.size() + " anomalies " + types);
+        anomalies.stream().limit(PRINTED_ANOMALIES).forEach(anomaly -> out.println("  " + anomaly));
+    }
+}
@@ -0,0 +1,194 @@
+package emulator;
+
+import model.Booking;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+
+/**
+ * In-memory booking store of the {@link BookerEmulator}, indexed on firstname, lastname, checkin and checkout.
+ * <p>
+ * Each write runs inside {@code compute} on the booking's ID, so writes to one booking are serialized and the
+ * indexes are updated with the record. Reads take no locks. A query collects candidate IDs from the most selective
+ * index, then checks every candidate against its current record. This way a query never returns a booking that
+ * does not match, even while an index is being updated.
+ * <p>
+ * Bookings are expected to be valid, with both names and ISO dates set, see {@link BookerEmulator}.
+ */
+public class BookingStore {
+
+    private final AtomicInteger nextId = new AtomicInteger(1);
+    private final Map<Integer, Booking> bookings = new ConcurrentHashMap<>();
+
+    private final Map<String, Set<Integer>> byFirstname = new ConcurrentHashMap<>();
+    private final Map<String, Set<Integer>> byLastname = new ConcurrentHashMap<>();
+    private final NavigableMap<LocalDate, Set<Integer>> byCheckin = new ConcurrentSkipListMap<>();
+    private final NavigableMap<LocalDate, Set<Integer>> byCheckout = new ConcurrentSkipListMap<>();
+
+    /**
+     * @param booking The booking to store.
+     * @return The ID assigned to the booking.
+     */
+    public int create(Booking booking) {
+        int id = nextId.getAndIncrement();
+        bookings.compute(id, (key, current) -> {
+            index(id, booking);
+            return booking;
+        });
+        return id;
+    }
+
+    /**
+     * @param id The booking ID.
+     * @return The booking, or null if there is none with this ID.
+     */
+    public Booking get(int id) {
+        return bookings.get(id);
+    }
+
+    /**
+     * Replaces a booking, or changes it based on its current value.
+     *
+     * @param id     The booking ID.
+     * @param update Returns the new booking, given the current one.
+     * @return The new booking, or null if there is none with this ID.
+     */
+    public Booking update(int id, UnaryOperator<Booking> update) {
+        return bookings.computeIfPresent(id, (key, current) -> {
+            Booking updated = update.apply(current);
+            unindex(id, current);
+            index(id, updated);
+            return updated;
+        });
+    }
+
+    /**
+     * @param id The booking ID.
+     * @return Whether a booking was deleted.
+     */
+    public boolean delete(int id) {
+        boolean[] deleted = new boolean[1];
+        bookings.computeIfPresent(id, (key, current) -> {
+            unindex(id, current);
+            deleted[0] = true;
+            return null;
+        });
+        return deleted[0];
+    }
+
+    public int size() {
+        return bookings.size();
+    }
+
+    /**
+     * Finds the bookings matching every given filter, null filters match everything.
+     *
+     * @param firstname      The exact firstname.
+     * @param lastname       The exact lastname.
+     * @param checkinAfter   Only bookings checking in strictly after this date.
+     * @param checkoutBefore Only bookings checking out strictly before this date.
+     * @return The IDs of the matching bookings, in ascending order.
+     */
+    public int[] find(String firstname, String lastname, LocalDate checkinAfter, LocalDate checkoutBefore) {
+        Collection<Integer> candidates;
+        if (firstname != null || lastname != null) {
+            Set<Integer> first = firstname == null ? null : byFirstname.getOrDefault(firstname, Set.of());
+            Set<Integer> last = lastname == null ? null : byLastname.getOrDefault(lastname, Set.of());
+            candidates = first == null || (last != null && last.size() < first.size()) ? last : first;
+        } else if (checkinAfter != null) {
+            candidates = flatten(byCheckin.tailMap(checkinAfter, false).values());
+        } else if (checkoutBefore != null) {
+            candidates = flatten(byCheckout.headMap(checkoutBefore, false).values());
+        } else {
+            candidates = bookings.keySet();
+        }
+
+        int[] ids = new int[candidates.size()];
+        int size = 0;
+        for (Integer id : candidates) {
+            Booking booking = bookings.get(id);
+            if (booking != null && matches(booking, firstname, lastname, checkinAfter, checkoutBefore)) {
+                if (size == ids.length) {
+                    ids = Arrays.copyOf(ids, size * 2 + 1);
+                }
+                ids[size++] = id;
+            }
+        }
+        ids = Arrays.copyOf(ids, size);
+        Arrays.sort(ids);
+        return distinct(ids);
+    }
+
+    /**
+     * Drops repeated IDs from a sorted array. A booking moved to another date while the date sets were scanned can be
+     * met in both its old and its new set.
+     */
+    private static int[] distinct(int[] sorted) {
+        int size = 0;
+        for (int id : sorted) {
+            if (size == 0 || sorted[size - 1] != id) {
+                sorted[size++] = id;
+            }
+        }
+        return size == sorted.length ? sorted : Arrays.copyOf(sorted, size);
+    }
+
+    private static boolean matches(Booking booking, String firstname, String lastname,
+                                   LocalDate checkinAfter, LocalDate checkoutBefore) {
+        return (firstname == null || firstname.equals(booking.getFirstname()))
+            && (lastname == null || lastname.equals(booking.getLastname()))
+            && (checkinAfter == null || checkin(booking).isAfter(checkinAfter))
+            && (checkoutBefore == null || checkout(booking).isBefore(checkoutBefore));
+    }
+
+    private static Collection<Integer> flatten(Collection<Set<Integer>> sets) {
+        return sets.stream().flatMap(Set::stream).toList();
+    }
+
+    private void index(int id, Booking booking) {
+        add(byFirstname, booking.getFirstname(), id);
+        add(byLastname, booking.getLastname(), id);
+        byCheckin.computeIfAbsent(checkin(booking), date -> ConcurrentHashMap.newKeySet()).add(id);
+        byCheckout.computeIfAbsent(checkout(booking), date -> ConcurrentHashMap.newKeySet()).add(id);
+    }
+
+    private void unindex(int id, Booking booking) {
+        remove(byFirstname, booking.getFirstname(), id);
+        remove(byLastname, booking.getLastname(), id);
+        // The skip lists do not update atomically, so emptied date entries are kept rather than risk dropping an ID
+        // added concurrently. There are only a few thousand distinct dates.
+        byCheckin.get(checkin(booking)).remove(id);
+        byCheckout.get(checkout(booking)).remove(id);
+    }
+
+    private static void add(Map<String, Set<Integer>> index, String key, int id) {
+        index.compute(key, (k, ids) -> {
+            Set<Integer> set = ids == null ? ConcurrentHashMap.newKeySet() : ids;
+            set.add(id);
+            return set;
+        });
+    }
+
+    private static void remove(Map<String, Set<Integer>> index, String key, int id) {
+        index.computeIfPresent(key, (k, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private static LocalDate checkin(Booking booking) {
+        return LocalDate.parse(booking.getBookingDates().getCheckin());
+    }
+
+    private static LocalDate checkout(Booking booking) {
+        return LocalDate.parse(booking.getBookingDates().getCheckout());
+    }
+}
@@ -1,7 +1,17 @@
 package helpers;
 
-import java.util.HashMap;
+import cluster.BookerInstance;
+import cluster.LoadBalancer;
+import model.Credentials;
+import specs.BaseSpec;
+
+import java.time.Duration;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.is;
@@ -11,9 +21,28 @@ import static specs.BaseSpec.responseSpec;
 
 /**
  * Helper class for authentication-related tasks.
+ * <p>
+ * Tokens are cached per set of credentials, so a run making hundreds of authenticated calls only hits
+ * {@code /auth} once. Cached tokens expire after the TTL set with the system property
+ * {@code booker.auth.ttlSeconds} (300 seconds by default), or when invalidated after a 403 response. The cache holds
+ * a future per set of credentials: the first caller to find no valid token puts a new future in place and calls
+ * {@code /auth} outside the map, concurrent callers wait for that future, and a failed request is removed again so
+ * the next caller retries.
+ * <p>
+ * A token is only accepted by the booker instance that issued it, so when requests are balanced over several
+ * instances the tokens are cached per instance. The instance is the one the calling thread is pinned or sticks to,
+ * or else the one the load balancer picks, and {@code /auth} is sent to that same instance. Under the non-sticky
+ * strategies, a thread using the token should pin itself to that instance, see {@link LoadBalancer#pin}.
  */
 public class AuthenticationHelper {
 
+    public static final String TOKEN_TTL_PROPERTY = "booker.auth.ttlSeconds";
+
+    private static final Map<TokenKey, CachedToken> TOKENS = new ConcurrentHashMap<>();
+    private static final AtomicInteger AUTH_REQUESTS = new AtomicInteger();
+
+    private static volatile Duration tokenTtl = Duration.ofSeconds(Long.getLong(TOKEN_TTL_PROPERTY, 300));
+
     /**
      * Get an authentication token using default credentials.
      * @return An authentication token.
@@ -23,25 +52,161 @@ public class AuthenticationHelper {
     }
 
     /**
-     * Get an authentication token using the given credentials.
+     * Get an authentication token using the given credentials, reusing a cached token if it hasn't expired.
      * @param username The username for authentication.
      * @param password The password for authentication.
      * @return An authentication token.
      */
     public static String getAuthenticationToken(String username, String password) {
-        Map<String, String> params = new HashMap<>();
-        params.put("username", username);
-        params.put("password", password);
-
-        return given()
-            .spec(requestSpec())
-            .body(params)
-            .when()
-            .post("/auth")
-            .then()
-            .spec(responseSpec())
-            .body("token", is(notNullValue()))
-            .extract()
-            .path("token");
+        Credentials credentials = Credentials.builder()
+            .username(username)
+            .password(password)
+            .build();
+
+        BookerInstance instance = tokenInstance();
+        return await(cachedToken(new TokenKey(credentials, instance),
+            key -> CompletableFuture.completedFuture(requestAuthenticationToken(key, instance))));
+    }
+
+    /**
+     * Gets a token from the same cache for clients that do not send their requests through REST-assured, such as
+     * {@link client.AsyncBookingClient}.
+     *
+     * @param credentials The credentials to authenticate with.
+     * @param instance    The instance the token is for, null when there is a single instance.
+     * @param request     Requests a new token from {@code /auth}, called when no valid token is cached.
+     * @return The cached or requested token, or a failed future if the request failed.
+     */
+    public static CompletableFuture<String> getAuthenticationToken(
+        Credentials credentials, BookerInstance instance, Function<Credentials, CompletableFuture<String>> request) {
+        return cachedToken(new TokenKey(credentials, instance), request);
+    }
+
+    /**
+     * Removes the given token from the cache, so the next call requests a new one.
+     * Call this when a request using the token is rejected with 403 Forbidden.
+     * @param token The token that is no longer accepted.
+     */
+    public static void invalidateAuthenticationToken(String token) {
+        TOKENS.values().removeIf(cached -> token.equals(cached.token().getNow(null)));
+    }
+
+    /**
+     * Removes all cached tokens.
+     */
+    public static void clearAuthenticationTokens() {
+        TOKENS.clear();
+    }
+
+    /**
+     * Sets how long a token is reused before a new one is requested.
+     * @param ttl The time to live of cached tokens.
+     */
+    public static void setTokenTtl(Duration ttl) {
+        tokenTtl = ttl;
+    }
+
+    /**
+     * @return How long a token is reused before a new one is requested.
+     */
+    public static Duration getTokenTtl() {
+        return tokenTtl;
+    }
+
+    /**
+     * @return The number of requests actually made to {@code /auth} by this helper and the clients sharing its cache.
+     */
+    public static int getAuthenticationRequestCount() {
+        return AUTH_REQUESTS.get();
+    }
+
+    private static CompletableFuture<String> cachedToken(TokenKey key,
+                                                         Function<Credentials, CompletableFuture<String>> request) {
+        while (true) {
+            CachedToken cached = TOKENS.get(key);
+            if (cached != null && !cached.isExpired() && !cached.token().isCompletedExceptionally()) {
+                return cached.token();
+            }
+            CachedToken requested = new CachedToken(new CompletableFuture<>(), System.nanoTime() + tokenTtl.toNanos());
+            boolean claimed = cached == null
+                ? TOKENS.putIfAbsent(key, requested) == null
+                : TOKENS.replace(key, cached, requested);
+            if (!claimed) {
+                continue;
+            }
+            // Only the caller that put the future in place calls /auth, the others wait for its result
+            AUTH_REQUESTS.incrementAndGet();
+            CompletableFuture<String> response;
+            try {
+                response = request.apply(key.credentials());
+            } catch (RuntimeException | AssertionError e) {
+                response = CompletableFuture.failedFuture(e);
+            }
+            response.whenComplete((token, error) -> {
+                if (error == null) {
+                    requested.token().complete(token);
+                } else {
+                    TOKENS.remove(key, requested);
+                    requested.token().completeExceptionally(
+                        error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+                }
+            });
+            return requested.token();
+        }
+    }
+
+    private static String requestAuthenticationToken(Credentials credentials, BookerInstance instance) {
+        // The token is cached for this instance, so the balancer must not send the request elsewhere
+        BookerInstance previous = LoadBalancer.pinned();
+        LoadBalancer.pin(instance);
+        try {
+            return given()
+                .spec(requestSpec())
+                .body(credentials)
+                .when()
+                .post("/auth")
+                .then()
+                .spec(responseSpec())
+                .body("token", is(notNullValue()))
+                .extract()
+                .path("token");
+        } finally {
+            LoadBalancer.pin(previous);
+        }
+    }
+
+    /**
+     * Waits for a token requested by another thread, rethrowing the failure of its request as is.
+     */
+    private static String await(CompletableFuture<String> token) {
+        try {
+            return token.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static BookerInstance tokenInstance() {
+        LoadBalancer loadBalancer = BaseSpec.loadBalancer();
+        return loadBalancer == null ? null : loadBalancer.choose();
+    }
+
+    /**
+     * @param instance The instance the token was requested from, null when there is a single instance.
+     */
+    private record TokenKey(Credentials credentials, BookerInstance instance) {
+    }
+
+    private record CachedToken(CompletableFuture<String> token, long expiresAtNanos) {
+
+        boolean isExpired() {
+            return System.nanoTime() - expiresAtNanos >= 0;
+        }
     }
 }
@@ -0,0 +1,131 @@
+package helpers;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import model.Booking;
+import model.BookingDates;
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+import org.hamcrest.TypeSafeDiagnosingMatcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import static helpers.JsonSupport.BOOKING_READER;
+import static helpers.JsonSupport.MAPPER;
+
+/**
+ * Hamcrest matchers comparing a booking response body with the expected {@link Booking}, usable in
+ * {@code .body(...)}.
+ * <p>
+ * A chain of {@code .body("bookingdates.checkin", equalTo(...))} calls evaluates a Groovy GPath expression over the
+ * response for every field. These matchers read the body once with the shared Jackson readers and compare all fields
+ * in one pass, reporting every field that differs rather than stopping at the first. Field types are not checked,
+ * Jackson accepts e.g. {@code "totalprice":"100"} as 100, so pair them with the schema matchers of
+ * {@link SchemaRegistry} where types matter.
+ */
+public final class BookingAssertions {
+
+    private static final ObjectReader CREATED_BOOKING_READER = MAPPER.readerFor(CreatedBooking.class);
+
+    private BookingAssertions() {
+    }
+
+    /**
+     * @param expected The booking the response should hold.
+     * @return A matcher for the payload returned by GET, PUT and PATCH /booking/{id}.
+     */
+    public static Matcher<String> matchesBooking(Booking expected) {
+        return new TypeSafeDiagnosingMatcher<>() {
+            @Override
+            protected boolean matchesSafely(String json, Description mismatch) {
+                Booking actual;
+                try {
+                    actual = BOOKING_READER.readValue(json);
+                } catch (JsonProcessingException e) {
+                    mismatch.appendText("was not a booking: ").appendText(e.getOriginalMessage());
+                    return false;
+                }
+                return compare("", expected, actual, mismatch);
+            }
+
+            @Override
+            public void describeTo(Description description) {
+                description.appendText("a booking equal to ").appendValue(expected);
+            }
+        };
+    }
+
+    /**
+     * @param expected The booking the response should hold.
+     * @return A matcher for the payload returned by POST /booking, checking it holds a booking ID and the booking.
+     */
+    public static Matcher<String> matchesCreatedBooking(Booking expected) {
+        return new TypeSafeDiagnosingMatcher<>() {
+            @Override
+            protected boolean matchesSafely(String json, Description mismatch) {
+                CreatedBooking actual;
+                try {
+                    actual = CREATED_BOOKING_READER.readValue(json);
+                } catch (JsonProcessingException e) {
+                    mismatch.appendText("was not a created booking: ").appendText(e.getOriginalMessage());
+                    return false;
+                }
+                if (actual.bookingid() == null) {
+                    mismatch.appendText("had no bookingid");
+                    return false;
+                }
+                if (actual.booking() == null) {
+                    mismatch.appendText("had no booking");
+                    return false;
+                }
+                return compare("booking.", expected, actual.booking(), mismatch);
+            }
+
+            @Override
+            public void describeTo(Description description) {
+                description.appendText("a booking ID and a booking equal to ").appendValue(expected);
+            }
+        };
+    }
+
+    private static boolean compare(String prefix, Booking expected, Booking actual, Description mismatch) {
+        List<String> differences = new ArrayList<>();
+        compare(differences, prefix + "firstname", expected.getFirstname(), actual.getFirstname());
+        compare(differences, prefix + "lastname", expected.getLastname(), actual.getLastname());
+        compare(differences, prefix + "totalprice", expected.getTotalPrice(), actual.getTotalPrice());
+        compare(differences, prefix + "depositpaid", expected.isDepositPaid(), actual.isDepositPaid());
+        BookingDates expectedDates = expected.getBookingDates();
+        BookingDates actualDates = actual.getBookingDates();
+        if (expectedDates == null || actualDates == null) {
+            compare(differences, prefix + "bookingdates", expectedDates, actualDates);
+        } else {
+            compare(differences, prefix + "bookingdates.checkin", expectedDates.getCheckin(), actualDates.getCheckin());
+            compare(differences, prefix + "bookingdates.checkout", expectedDates.getCheckout(),
+                actualDates.getCheckout());
+        }
+        compare(differences, prefix + "additionalneeds", expected.getAdditionalNeeds(), actual.getAdditionalNeeds());
+
+        if (!differences.isEmpty()) {
+            mismatch.appendText(String.join(", ", differences));
+        }
+        return differences.isEmpty();
+    }
+
+    private static void compare(List<String> differences, String field, Object expected, Object actual) {
+        if (!Objects.equals(expected, actual)) {
+            differences.add(field + " was " + quote(actual) + " instead of " + quote(expected));
+        }
+    }
+
+    private static String quote(Object value) {
+        return value instanceof String ? "\"" + value + "\"" : String.valueOf(value);
+    }
+
+    /**
+     * The payload returned by POST /booking.
+     */
+    private record CreatedBooking(Integer bookingid, Booking booking) {
+    }
+}
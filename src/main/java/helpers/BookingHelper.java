@@ -1,8 +1,26 @@
 package helpers;
 
+import cleanup.TrackedBookings;
+import cluster.BookerInstance;
+import cluster.LoadBalancer;
+import io.restassured.response.Response;
+import load.UserThreads;
 import model.Booking;
 import org.apache.http.HttpStatus;
+import specs.BaseSpec;
 
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import static helpers.AuthenticationHelper.getAuthenticationToken;
+import static helpers.AuthenticationHelper.invalidateAuthenticationToken;
 import static io.restassured.RestAssured.given;
 import static specs.BaseSpec.requestSpec;
 
@@ -25,4 +43,250 @@ public class BookingHelper {
             .path("bookingid");
     }
 
+    /**
+     * Create many bookings concurrently, keeping at most {@code parallelism} requests in flight.
+     * The stream is consumed lazily, so millions of bookings can be seeded without holding them all in memory.
+     * @param bookings the bookings to create
+     * @param parallelism the maximum number of concurrent create requests
+     * @return the IDs of the new bookings, in stream order, and the seeding throughput
+     * @throws IllegalStateException if any booking could not be created
+     */
+    public static SeedResult createBookings(Stream<Booking> bookings, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1");
+        }
+
+        Semaphore inFlight = new Semaphore(parallelism);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        IdChunks ids = new IdChunks();
+        long start = System.nanoTime();
+
+        // Bookings created by the workers are tracked for cleanup, and sent to the booker instance, like the caller's
+        TrackedBookings tracked = TrackedBookings.current();
+        BookerInstance instance = callerInstance();
+        ExecutorService executor = UserThreads.newUserExecutor(parallelism);
+        try {
+            Iterator<Booking> iterator = bookings.iterator();
+            while (iterator.hasNext() && failure.get() == null) {
+                Booking booking = iterator.next();
+                // Each task writes its ID into its own slot, so IDs keep the stream order without locking
+                int[] chunk = ids.nextSlot();
+                int offset = (ids.size() - 1) & IdChunks.MASK;
+
+                inFlight.acquire();
+                executor.execute(() -> {
+                    TrackedBookings.enter(tracked);
+                    LoadBalancer.pin(instance);
+                    try {
+                        chunk[offset] = createBooking(booking);
+                    } catch (RuntimeException | AssertionError e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        TrackedBookings.exit();
+                        LoadBalancer.pin(null);
+                        inFlight.release();
+                    }
+                });
+            }
+            // Waits for the last requests to complete
+            inFlight.acquire(parallelism);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while seeding bookings", e);
+        } finally {
+            executor.shutdown();
+        }
+
+        if (failure.get() != null) {
+            throw new IllegalStateException("Failed to seed bookings after submitting " + ids.size(), failure.get());
+        }
+        return new SeedResult(ids.toArray(), Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    /**
+     * Delete many bookings concurrently, keeping at most {@code parallelism} requests in flight.
+     * All requests share one cached token, which is renewed once if booker rejects it.
+     * Bookings that no longer exist are skipped.
+     * @param bookingIds IDs of the bookings to delete
+     * @param parallelism the maximum number of concurrent delete requests
+     * @return the number of bookings deleted
+     * @throws IllegalStateException if a booking could not be deleted
+     */
+    public static int deleteBookings(int[] bookingIds, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1");
+        }
+
+        Semaphore inFlight = new Semaphore(parallelism);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        AtomicInteger deleted = new AtomicInteger();
+        BookerInstance instance = callerInstance();
+
+        ExecutorService executor = UserThreads.newUserExecutor(Math.min(parallelism, Math.max(bookingIds.length, 1)));
+        try {
+            for (int i = 0; i < bookingIds.length && failure.get() == null; i++) {
+                int bookingId = bookingIds[i];
+                inFlight.acquire();
+                executor.execute(() -> {
+                    LoadBalancer.pin(instance);
+                    try {
+                        String token = getAuthenticationToken();
+                        int status = deleteBooking(bookingId, token).getStatusCode();
+                        if (status == HttpStatus.SC_FORBIDDEN) {
+                            invalidateAuthenticationToken(token);
+                            status = deleteBooking(bookingId, getAuthenticationToken()).getStatusCode();
+                        }
+                        if (status == HttpStatus.SC_CREATED) {
+                            deleted.incrementAndGet();
+                        } else if (status != HttpStatus.SC_METHOD_NOT_ALLOWED) {
+                            // booker answers 405 for bookings that do not exist
+                            throw new IllegalStateException("DELETE /booking/" + bookingId + " returned " + status);
+                        }
+                    } catch (RuntimeException | AssertionError e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        LoadBalancer.pin(null);
+                        inFlight.release();
+                    }
+                });
+            }
+            inFlight.acquire(parallelism);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while deleting bookings", e);
+        } finally {
+            executor.shutdown();
+        }
+
+        if (failure.get() != null) {
+            throw new IllegalStateException("Failed to delete bookings, " + deleted.get() + " deleted", failure.get());
+        }
+        return deleted.get();
+    }
+
+    /**
+     * Retrieve the IDs of the bookings matching the given filters, streaming them out of the response body without
+     * buffering it
+     * @param filters query parameters such as firstname or checkin, empty to list every booking
+     * @return the booking IDs listed by GET /booking
+     */
+    public static BookingIds getBookingIds(Map<String, ?> filters) {
+        Response response = given()
+            .spec(BaseSpec.streamingRequestSpec())
+            .queryParams(filters)
+            .when()
+            .get("/booking");
+        if (response.statusCode() != HttpStatus.SC_OK) {
+            throw new AssertionError("GET /booking answered " + response.statusCode() + ": " + response.asString());
+        }
+        // BookingIds.read closes the stream, which releases the pooled connection
+        return BookingIds.read(response.asInputStream());
+    }
+
+    /**
+     * Retrieve a booking, leaving the validation of the response to the caller
+     * @param bookingId ID of the booking to retrieve
+     * @return the response to GET /booking/{id}
+     */
+    public static Response getBooking(int bookingId) {
+        return given()
+            .spec(requestSpec())
+            .pathParams("id", bookingId)
+            .when()
+            .get("/booking/{id}");
+    }
+
+    /**
+     * Replace a booking, leaving the validation of the response to the caller
+     * @param bookingId ID of the booking to update
+     * @param booking the new booking details
+     * @param token authentication token sent as the token cookie
+     * @return the response to PUT /booking/{id}
+     */
+    public static Response updateBooking(int bookingId, Booking booking, String token) {
+        return given()
+            .spec(requestSpec())
+            .cookie("token", token)
+            .pathParams("id", bookingId)
+            .body(booking)
+            .when()
+            .put("/booking/{id}");
+    }
+
+    /**
+     * Partially update a booking, leaving the validation of the response to the caller
+     * @param bookingId ID of the booking to update
+     * @param fields the booking fields to change, keyed by their JSON name
+     * @param token authentication token sent as the token cookie
+     * @return the response to PATCH /booking/{id}
+     */
+    public static Response partialUpdateBooking(int bookingId, Map<String, ?> fields, String token) {
+        return given()
+            .spec(requestSpec())
+            .cookie("token", token)
+            .pathParams("id", bookingId)
+            .body(fields)
+            .when()
+            .patch("/booking/{id}");
+    }
+
+    /**
+     * Delete a booking, leaving the validation of the response to the caller
+     * @param bookingId ID of the booking to delete
+     * @param token authentication token sent as the token cookie
+     * @return the response to DELETE /booking/{id}, 201 Created on success
+     */
+    public static Response deleteBooking(int bookingId, String token) {
+        return given()
+            .spec(requestSpec())
+            .cookie("token", token)
+            .pathParams("id", bookingId)
+            .when()
+            .delete("/booking/{id}");
+    }
+
+    /**
+     * @return the booker instance the calling thread sticks to when requests are balanced over several, or null
+     */
+    private static BookerInstance callerInstance() {
+        LoadBalancer loadBalancer = BaseSpec.loadBalancer();
+        return loadBalancer == null ? null : loadBalancer.stickyInstance();
+    }
+
+    /**
+     * Growable int storage made of fixed size chunks, so slots handed out never move when it grows.
+     */
+    private static final class IdChunks {
+        static final int SHIFT = 14;
+        static final int MASK = (1 << SHIFT) - 1;
+
+        private int[][] chunks = new int[4][];
+        private int size;
+
+        int[] nextSlot() {
+            int chunk = size >>> SHIFT;
+            if (chunk == chunks.length) {
+                chunks = Arrays.copyOf(chunks, chunks.length * 2);
+            }
+            if (chunks[chunk] == null) {
+                chunks[chunk] = new int[1 << SHIFT];
+            }
+            size++;
+            return chunks[chunk];
+        }
+
+        int size() {
+            return size;
+        }
+
+        int[] toArray() {
+            int[] result = new int[size];
+            for (int copied = 0, chunk = 0; copied < size; chunk++) {
+                int length = Math.min(1 << SHIFT, size - copied);
+                System.arraycopy(chunks[chunk], 0, result, copied, length);
+                copied += length;
+            }
+            return result;
+        }
+    }
 }
@@ -0,0 +1,190 @@
+package helpers;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+import org.hamcrest.TypeSafeDiagnosingMatcher;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import static helpers.JsonSupport.MAPPER;
+
+/**
+ * The booking IDs listed by GET /booking, held in an int array.
+ * <p>
+ * {@link #read(InputStream)} pulls the IDs out of the {@code [{"bookingid":1},...]} payload one token at a time,
+ * so parsing a listing of hundreds of thousands of bookings keeps four bytes per ID instead of a JsonPath tree of
+ * maps. {@link BookingHelper#getBookingIds} sends the request with {@link specs.BaseSpec#streamingRequestSpec()}, so
+ * the body is parsed straight off the connection rather than buffered first. The matchers below assert on the IDs
+ * without converting them to a list of boxed integers.
+ */
+public final class BookingIds {
+
+    private static final String BOOKING_ID = "bookingid";
+
+    private final int[] ids;
+    private final int[] sorted;
+
+    private BookingIds(int[] ids) {
+        this.ids = ids;
+        this.sorted = ids.clone();
+        Arrays.sort(sorted);
+    }
+
+    /**
+     * Reads a booking ID listing, closing the stream.
+     *
+     * @param json The GET /booking response body.
+     * @return The IDs, in response order.
+     * @throws IllegalArgumentException If the body is not an array of objects with a bookingid field.
+     * @throws UncheckedIOException     If the body cannot be read or is not valid JSON.
+     */
+    public static BookingIds read(InputStream json) {
+        int[] ids = new int[1024];
+        int size = 0;
+        try (JsonParser parser = MAPPER.getFactory().createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Expected a JSON array of booking IDs");
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) == JsonToken.START_OBJECT) {
+                boolean found = false;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    parser.nextToken();
+                    if (BOOKING_ID.equals(field)) {
+                        if (size == ids.length) {
+                            ids = Arrays.copyOf(ids, size * 2);
+                        }
+                        ids[size++] = parser.getIntValue();
+                        found = true;
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                if (!found) {
+                    throw new IllegalArgumentException("Booking ID listing entry " + size + " has no " + BOOKING_ID);
+                }
+            }
+            if (token != JsonToken.END_ARRAY) {
+                throw new IllegalArgumentException("Expected an object in the booking ID listing but found " + token);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read booking ID listing", e);
+        }
+        return new BookingIds(Arrays.copyOf(ids, size));
+    }
+
+    /**
+     * @param ids The booking IDs.
+     * @return The IDs as a listing, e.g. to compare with a listing read from a response.
+     */
+    public static BookingIds of(int... ids) {
+        return new BookingIds(ids.clone());
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public boolean contains(int id) {
+        return Arrays.binarySearch(sorted, id) >= 0;
+    }
+
+    /**
+     * @return The IDs in response order.
+     */
+    public IntStream stream() {
+        return Arrays.stream(ids);
+    }
+
+    /**
+     * @return A copy of the IDs in response order.
+     */
+    public int[] toArray() {
+        return ids.clone();
+    }
+
+    @Override
+    public String toString() {
+        return ids.length <= 10
+            ? Arrays.toString(ids)
+            : Arrays.toString(Arrays.copyOf(ids, 10)).replace("]", ", ... " + (ids.length - 10) + " more]");
+    }
+
+    /**
+     * @param count The expected number of IDs, e.g. {@code greaterThan(0)}.
+     * @return A matcher on the number of IDs listed.
+     */
+    public static Matcher<BookingIds> hasBookingCount(Matcher<? super Integer> count) {
+        return new TypeSafeDiagnosingMatcher<>() {
+            @Override
+            protected boolean matchesSafely(BookingIds listing, Description mismatch) {
+                if (!count.matches(listing.size())) {
+                    mismatch.appendText("listed " + listing.size() + " bookings, count ");
+                    count.describeMismatch(listing.size(), mismatch);
+                    return false;
+                }
+                return true;
+            }
+
+            @Override
+            public void describeTo(Description description) {
+                description.appendText("a booking ID listing with a count of ").appendDescriptionOf(count);
+            }
+        };
+    }
+
+    /**
+     * @param expected IDs that must all be listed.
+     * @return A matcher checking every expected ID is in the listing.
+     */
+    public static Matcher<BookingIds> containsBookingIds(int... expected) {
+        int[] ids = expected.clone();
+        return new TypeSafeDiagnosingMatcher<>() {
+            @Override
+            protected boolean matchesSafely(BookingIds listing, Description mismatch) {
+                int[] missing = Arrays.stream(ids).filter(id -> !listing.contains(id)).toArray();
+                if (missing.length > 0) {
+                    mismatch.appendText("did not list " + Arrays.toString(missing) + " in " + listing);
+                    return false;
+                }
+                return true;
+            }
+
+            @Override
+            public void describeTo(Description description) {
+                description.appendText("a booking ID listing containing " + Arrays.toString(ids));
+            }
+        };
+    }
+
+    /**
+     * @param allowed The only IDs the listing may contain.
+     * @return A matcher checking every listed ID is one of the allowed IDs.
+     */
+    public static Matcher<BookingIds> isSubsetOf(int... allowed) {
+        BookingIds superset = of(allowed);
+        return new TypeSafeDiagnosingMatcher<>() {
+            @Override
+            protected boolean matchesSafely(BookingIds listing, Description mismatch) {
+                int[] unexpected = listing.stream().filter(id -> !superset.contains(id)).limit(10).toArray();
+                if (unexpected.length > 0) {
+                    mismatch.appendText("also listed " + Arrays.toString(unexpected));
+                    return false;
+                }
+                return true;
+            }
+
+            @Override
+            public void describeTo(Description description) {
+                description.appendText("a booking ID listing within " + superset);
+            }
+        };
+    }
+}
@@ -1,11 +1,29 @@
 package helpers;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.util.JsonGeneratorDelegate;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import model.Booking;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static helpers.JsonSupport.BOOKING_WRITER;
+import static helpers.JsonSupport.MAPPER;
 
 
 /**
- * Utility class for converting a Java class to JSON format with an extra field.
+ * Utility class for converting a Java class to JSON format with extra fields.
+ * <p>
+ * The object is streamed straight to bytes through the shared ObjectMapper, and the extra fields are written
+ * just before the closing brace of the top-level object, without building an intermediate JSON tree. An extra field
+ * named like a property of the object replaces it: the property is left out and the extra field written at the end.
  */
 public class ClassToJsonConverter {
 
@@ -14,18 +32,119 @@ public class ClassToJsonConverter {
      *
      * @param object          The Java object to convert to JSON.
      * @param extraFieldName  The name of the extra field to add to the JSON object.
-     * @param extraFieldValue The value of the extra field to add to the JSON object.
+     * @param extraFieldValue The value of the extra field to add to the JSON object, written as a string.
      * @return A JSON string representing the Java object with the extra field.
      */
     public static String convertClassToJsonWithExtraField(Object object, String extraFieldName, Object extraFieldValue) {
-        ObjectMapper objectMapper = new ObjectMapper();
-        ObjectNode objectNode = objectMapper.convertValue(object, ObjectNode.class);
-        objectNode.put(extraFieldName, extraFieldValue.toString()); // Convert the extraFieldValue to String
-        try {
-            return objectMapper.writeValueAsString(objectNode);
-        } catch (Exception e) {
-            System.out.println("Error converting class to JSON with extra field: " + e.getMessage());
-            return null;
+        return convertClassToJsonWithExtraFields(object, Map.of(extraFieldName, extraFieldValue.toString()));
+    }
+
+    /**
+     * Converts a Java class to JSON format and appends extra fields to the JSON object.
+     *
+     * @param object      The Java object to convert to JSON.
+     * @param extraFields The fields to add or override, values are serialized with Jackson so they keep their JSON
+     *                    type.
+     * @return A JSON string representing the Java object with the extra fields.
+     */
+    public static String convertClassToJsonWithExtraFields(Object object, Map<String, ?> extraFields) {
+        return new String(writeClassToJsonWithExtraFields(object, extraFields), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Converts a Java class to UTF-8 encoded JSON and appends extra fields to the JSON object.
+     *
+     * @param object      The Java object to convert to JSON, must serialize to a JSON object.
+     * @param extraFields The fields to add or override, values are serialized with Jackson so they keep their JSON
+     *                    type.
+     * @return The JSON bytes of the Java object with the extra fields.
+     * @throws UncheckedIOException     If the object cannot be serialized.
+     * @throws IllegalArgumentException If the object does not serialize to a JSON object.
+     */
+    public static byte[] writeClassToJsonWithExtraFields(Object object, Map<String, ?> extraFields) {
+        ObjectWriter writer = object instanceof Booking ? BOOKING_WRITER : MAPPER.writerFor(object.getClass());
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        try (ExtraFieldsGenerator generator =
+                 new ExtraFieldsGenerator(MAPPER.getFactory().createGenerator(out, JsonEncoding.UTF8), extraFields)) {
+            writer.writeValue(generator, object);
+            if (!generator.injected) {
+                throw new IllegalArgumentException(object.getClass().getName() + " does not serialize to a JSON object");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error converting class to JSON with extra fields", e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Writes the extra fields when the top-level JSON object is about to be closed. A top-level property named like an
+     * extra field is written to a discarding generator instead, until its value is complete.
+     */
+    private static final class ExtraFieldsGenerator extends JsonGeneratorDelegate {
+
+        private final Map<String, ?> extraFields;
+        private final JsonGenerator output;
+        private JsonGenerator discarded;
+        private boolean injected;
+
+        ExtraFieldsGenerator(JsonGenerator delegate, Map<String, ?> extraFields) {
+            super(delegate, false);
+            this.extraFields = extraFields;
+            this.output = delegate;
+        }
+
+        @Override
+        public void writeFieldName(String name) throws IOException {
+            if (!skip(name)) {
+                super.writeFieldName(name);
+            }
+        }
+
+        @Override
+        public void writeFieldName(SerializableString name) throws IOException {
+            if (!skip(name.getValue())) {
+                super.writeFieldName(name);
+            }
+        }
+
+        /**
+         * Sends the value of an overridden top-level property to the discarding generator.
+         *
+         * @return True if the field name is dropped.
+         */
+        private boolean skip(String name) throws IOException {
+            resumeOutput();
+            if (delegate != output || !extraFields.containsKey(name) || !getOutputContext().getParent().inRoot()) {
+                return false;
+            }
+            if (discarded == null) {
+                discarded = MAPPER.getFactory().createGenerator(OutputStream.nullOutputStream());
+            }
+            delegate = discarded;
+            return true;
+        }
+
+        /**
+         * Switches back to the output once the discarded value is complete, i.e. the discarding generator is back at
+         * its root.
+         */
+        private void resumeOutput() {
+            if (delegate == discarded && delegate != null && delegate.getOutputContext().inRoot()) {
+                delegate = output;
+            }
+        }
+
+        @Override
+        public void writeEndObject() throws IOException {
+            resumeOutput();
+            if (delegate == output && !injected && getOutputContext().getParent().inRoot()) {
+                for (Map.Entry<String, ?> field : extraFields.entrySet()) {
+                    delegate.writeFieldName(field.getKey());
+                    delegate.writeObject(field.getValue());
+                }
+                injected = true;
+            }
+            super.writeEndObject();
         }
     }
 }
@@ -0,0 +1,26 @@
+package helpers;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import model.Booking;
+
+/**
+ * Shared, pre-configured Jackson objects.
+ * <p>
+ * An ObjectMapper is expensive to create but thread-safe once configured, so the whole project, REST-assured
+ * included (see {@link specs.BaseSpec}), serializes through this single instance. Readers and writers for
+ * {@link Booking} are created up front so the serializers are resolved once.
+ */
+public final class JsonSupport {
+
+    public static final ObjectMapper MAPPER = new ObjectMapper()
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    public static final ObjectWriter BOOKING_WRITER = MAPPER.writerFor(Booking.class);
+    public static final ObjectReader BOOKING_READER = MAPPER.readerFor(Booking.class);
+
+    private JsonSupport() {
+    }
+}
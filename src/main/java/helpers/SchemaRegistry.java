@@ -0,0 +1,145 @@
+package helpers;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.fge.jackson.JsonLoader;
+import com.github.fge.jsonschema.core.exceptions.ProcessingException;
+import com.github.fge.jsonschema.core.report.ProcessingReport;
+import com.github.fge.jsonschema.main.JsonSchema;
+import com.github.fge.jsonschema.main.JsonSchemaFactory;
+import org.hamcrest.Description;
+import org.hamcrest.Matcher;
+import org.hamcrest.TypeSafeDiagnosingMatcher;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static helpers.JsonSupport.MAPPER;
+
+/**
+ * Loads and compiles the JSON schemas on the classpath once, and validates JSON documents against them.
+ * <p>
+ * {@code matchesJsonSchemaInClasspath(...)} reloads the schema file every time it is called and recompiles the
+ * schema on every match. The compiled schemas kept here are thread-safe, so the same instances serve every test
+ * assertion and the high-volume response checks of the load runs.
+ */
+public final class SchemaRegistry {
+
+    public static final String BOOKING_SCHEMA = "BookingSchema.json";
+    public static final String CREATED_BOOKING_SCHEMA = "CreatedBookingSchema.json";
+
+    private static final JsonSchemaFactory FACTORY = JsonSchemaFactory.byDefault();
+    private static final Map<String, JsonSchema> SCHEMAS = new ConcurrentHashMap<>();
+
+    static {
+        schema(BOOKING_SCHEMA);
+        schema(CREATED_BOOKING_SCHEMA);
+    }
+
+    private SchemaRegistry() {
+    }
+
+    /**
+     * Returns the compiled schema, loading it from the classpath on first use.
+     *
+     * @param name The schema file name on the classpath, e.g. "BookingSchema.json".
+     * @return The compiled schema.
+     */
+    public static JsonSchema schema(String name) {
+        return SCHEMAS.computeIfAbsent(name, SchemaRegistry::load);
+    }
+
+    /**
+     * Validates a JSON document against a schema.
+     *
+     * @param name     The schema file name.
+     * @param document The parsed JSON document.
+     * @return The validation report, listing every violation.
+     */
+    public static ProcessingReport validate(String name, JsonNode document) {
+        try {
+            return schema(name).validate(document);
+        } catch (ProcessingException e) {
+            throw new IllegalStateException("Unable to validate against " + name, e);
+        }
+    }
+
+    /**
+     * Fast check for high-volume response validation, without building a report of the violations.
+     *
+     * @param name The schema file name.
+     * @param json The JSON document.
+     * @return Whether the document is valid JSON and conforms to the schema.
+     */
+    public static boolean isValid(String name, String json) {
+        try {
+            return schema(name).validInstanceUnchecked(MAPPER.readTree(json));
+        } catch (JsonProcessingException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @param name The schema file name.
+     * @return A Hamcrest matcher checking a JSON string conforms to the schema, usable in {@code .body(...)}.
+     */
+    public static Matcher<String> matchesSchema(String name) {
+        return new SchemaMatcher(name);
+    }
+
+    /**
+     * @return A matcher for the payload returned by GET, PUT and PATCH /booking/{id}.
+     */
+    public static Matcher<String> matchesBookingSchema() {
+        return matchesSchema(BOOKING_SCHEMA);
+    }
+
+    /**
+     * @return A matcher for the payload returned by POST /booking.
+     */
+    public static Matcher<String> matchesCreatedBookingSchema() {
+        return matchesSchema(CREATED_BOOKING_SCHEMA);
+    }
+
+    private static JsonSchema load(String name) {
+        try {
+            return FACTORY.getJsonSchema(JsonLoader.fromResource("/" + name));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to load JSON schema " + name, e);
+        } catch (ProcessingException e) {
+            throw new IllegalArgumentException("Invalid JSON schema " + name, e);
+        }
+    }
+
+    private static final class SchemaMatcher extends TypeSafeDiagnosingMatcher<String> {
+
+        private final String name;
+
+        SchemaMatcher(String name) {
+            this.name = name;
+        }
+
+        @Override
+        protected boolean matchesSafely(String json, Description mismatch) {
+            JsonNode document;
+            try {
+                document = MAPPER.readTree(json);
+            } catch (JsonProcessingException e) {
+                mismatch.appendText("was not valid JSON: ").appendText(e.getOriginalMessage());
+                return false;
+            }
+            ProcessingReport report = validate(name, document);
+            if (!report.isSuccess()) {
+                mismatch.appendText("violated the schema:\n").appendText(report.toString());
+            }
+            return report.isSuccess();
+        }
+
+        @Override
+        public void describeTo(Description description) {
+            description.appendText("JSON matching schema ").appendText(name);
+        }
+    }
+}
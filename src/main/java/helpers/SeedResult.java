@@ -0,0 +1,52 @@
+package helpers;
+
+import java.time.Duration;
+import java.util.stream.IntStream;
+
+/**
+ * The outcome of seeding bookings in bulk with {@link BookingHelper#createBookings}.
+ */
+public class SeedResult {
+
+    private final int[] ids;
+    private final Duration elapsed;
+
+    public SeedResult(int[] ids, Duration elapsed) {
+        this.ids = ids;
+        this.elapsed = elapsed;
+    }
+
+    /**
+     * @return The IDs of the created bookings, in the order the bookings were supplied.
+     */
+    public int[] getIds() {
+        return ids;
+    }
+
+    /**
+     * @return The IDs of the created bookings as a stream.
+     */
+    public IntStream stream() {
+        return IntStream.of(ids);
+    }
+
+    /**
+     * @return How long seeding took.
+     */
+    public Duration getElapsed() {
+        return elapsed;
+    }
+
+    /**
+     * @return The number of bookings created per second.
+     */
+    public double getThroughput() {
+        return ids.length / (elapsed.toNanos() / 1e9);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Created %d bookings in %.2f s (%.1f bookings/s)",
+            ids.length, elapsed.toNanos() / 1e9, getThroughput());
+    }
+}
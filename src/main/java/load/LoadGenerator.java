@@ -0,0 +1,411 @@
+package load;
+
+import builders.BookingBuilder;
+import client.AsyncBookingClient;
+import cluster.BookerInstance;
+import cluster.LoadBalancer;
+import helpers.BookingHelper;
+import io.restassured.response.Response;
+import model.Booking;
+import org.apache.http.HttpStatus;
+import specs.BaseSpec;
+import specs.ConnectionLeases;
+
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static helpers.AuthenticationHelper.getAuthenticationToken;
+import static helpers.AuthenticationHelper.invalidateAuthenticationToken;
+
+/**
+ * Drives a mix of create, get, update, partial update and delete traffic at the booker instance configured in
+ * {@link specs.BaseSpec}, and measures the latency of every request.
+ * <p>
+ * Each simulated user creates its own seed bookings, then loops until the run duration has elapsed, picking an
+ * operation according to the weights in the {@link LoadProfile}. Operations on existing bookings only use the
+ * bookings created by the same user. When a target rate is set, requests are spread evenly over time across
+ * all users, otherwise every user sends its next request as soon as the previous one completes. Users run on
+ * virtual threads where the JVM supports them, see {@link UserThreads}. The time a user waits for a pooled
+ * connection is left out of its latencies and reported separately, see {@link ConnectionLeases}.
+ * <p>
+ * When requests are balanced over several booker instances, each new booking goes to the instance the
+ * {@link LoadBalancer} picks, and the later requests on it, with their token, go to the instance that created it.
+ * An instance only knows its own bookings and tokens, so the mix runs under every {@link cluster.BalancingStrategy}.
+ * <p>
+ * With the {@link LoadProfile.Client#ASYNC async client}, a user does not wait for a response before sending its next
+ * request but keeps up to {@link LoadProfile#getPipeline()} requests in flight through an {@link AsyncBookingClient}
+ * shared by all users, one per booker instance. Latencies are then measured from the moment the request is handed to the client, so they
+ * include the time spent queued behind the client's cap on requests in flight. Seed bookings are always created
+ * with REST-assured.
+ */
+public class LoadGenerator {
+
+    private final LoadProfile profile;
+    private final Operation[] operations = Operation.values();
+    private final int[] cumulativeWeights = new int[operations.length];
+    private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+    private final OperationStats leaseWaits = new OperationStats();
+
+    public LoadGenerator(LoadProfile profile) {
+        this.profile = profile;
+
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += profile.getMix().getOrDefault(operations[i], 0);
+            cumulativeWeights[i] = total;
+            stats.put(operations[i], new OperationStats());
+        }
+    }
+
+    /**
+     * Seeds the bookings, runs the load for the configured duration and waits for all users to finish.
+     *
+     * @return The throughput and latencies measured per endpoint.
+     * @throws InterruptedException If interrupted while waiting for the users.
+     */
+    public LoadReport run() throws InterruptedException {
+        int users = profile.getUsers();
+        long intervalNanos = profile.getTargetRps() > 0 ? TimeUnit.SECONDS.toNanos(1) / profile.getTargetRps() : 0;
+        AtomicLong nextSlot = new AtomicLong();
+        long[] window = new long[2];
+        AtomicReference<Throwable> seedFailure = new AtomicReference<>();
+
+        // The measured run starts once every user has created its seed bookings
+        CyclicBarrier seeded = new CyclicBarrier(users, () -> {
+            window[0] = System.nanoTime();
+            window[1] = window[0] + profile.getDuration().toNanos();
+            nextSlot.set(window[0]);
+        });
+
+        Function<BookerInstance, AsyncBookingClient> clients =
+            profile.getClient() == LoadProfile.Client.ASYNC ? asyncClients() : null;
+        ExecutorService executor = UserThreads.newUserExecutor(users);
+        for (int i = 0; i < users; i++) {
+            executor.execute(() -> {
+                BookingPool pool = new BookingPool();
+                try {
+                    for (int seed = 0; seed < profile.getSeedBookingsPerUser(); seed++) {
+                        BookerInstance instance = chooseInstance();
+                        pool.add(onInstance(instance, () -> BookingHelper.createBooking(new BookingBuilder().build())),
+                            instance);
+                    }
+                } catch (RuntimeException | AssertionError e) {
+                    seedFailure.compareAndSet(null, e);
+                }
+                try {
+                    seeded.await();
+                } catch (InterruptedException | BrokenBarrierException e) {
+                    return;
+                }
+                if (seedFailure.get() != null) {
+                    return;
+                }
+                if (clients == null) {
+                    runUser(pool, window[1], intervalNanos, nextSlot);
+                } else {
+                    runUserAsync(clients, pool, window[1], intervalNanos, nextSlot);
+                }
+            });
+        }
+        executor.shutdown();
+        if (!executor.awaitTermination(profile.getDuration().toMinutes() + 5, TimeUnit.MINUTES)) {
+            executor.shutdownNow();
+        }
+        if (seedFailure.get() != null) {
+            throw new IllegalStateException("Seeding bookings failed, load run abandoned", seedFailure.get());
+        }
+        return new LoadReport(stats, leaseWaits, Duration.ofNanos(System.nanoTime() - window[0]));
+    }
+
+    private void runUser(BookingPool pool, long deadline, long intervalNanos, AtomicLong nextSlot) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (System.nanoTime() < deadline && !Thread.currentThread().isInterrupted()) {
+            if (!awaitSlot(deadline, intervalNanos, nextSlot)) {
+                return;
+            }
+            execute(nextOperation(pool, random), pool, random);
+        }
+    }
+
+    private void runUserAsync(Function<BookerInstance, AsyncBookingClient> clients, BookingPool pool, long deadline, long intervalNanos,
+                              AtomicLong nextSlot) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Semaphore pipeline = new Semaphore(profile.getPipeline());
+        try {
+            while (System.nanoTime() < deadline && !Thread.currentThread().isInterrupted()) {
+                if (!awaitSlot(deadline, intervalNanos, nextSlot)) {
+                    return;
+                }
+                pipeline.acquire();
+                CompletableFuture<?> completion;
+                try {
+                    completion = submit(clients, nextOperation(pool, random), pool, random);
+                } catch (RuntimeException e) {
+                    pipeline.release();
+                    throw e;
+                }
+                completion.whenComplete((result, error) -> pipeline.release());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            // The run is over once the user's last responses have arrived
+            pipeline.acquireUninterruptibly(profile.getPipeline());
+        }
+    }
+
+    /**
+     * Waits for the user's next send time when a target rate is set.
+     *
+     * @return False if the next send time is past the end of the run.
+     */
+    private static boolean awaitSlot(long deadline, long intervalNanos, AtomicLong nextSlot) {
+        if (intervalNanos > 0) {
+            long slot = nextSlot.getAndAdd(intervalNanos);
+            if (slot >= deadline) {
+                return false;
+            }
+            long wait = slot - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+        }
+        return true;
+    }
+
+    private Operation nextOperation(BookingPool pool, ThreadLocalRandom random) {
+        Operation operation = pick(random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]));
+        return operation.needsBooking() && pool.isEmpty() ? Operation.CREATE : operation;
+    }
+
+    private Operation pick(int value) {
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (value < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    private void execute(Operation operation, BookingPool pool, ThreadLocalRandom random) {
+        int index = operation.needsBooking() ? random.nextInt(pool.size()) : -1;
+        // Requests on a booking, and the token they use, go to the instance holding it
+        BookerInstance instance = index < 0 ? chooseInstance() : pool.instance(index);
+        onInstance(instance, () -> {
+            execute(operation, index < 0 ? 0 : pool.get(index), instance, pool);
+            return null;
+        });
+    }
+
+    private void execute(Operation operation, int bookingId, BookerInstance instance, BookingPool pool) {
+        String token = operation.needsBooking() && operation != Operation.GET ? getAuthenticationToken() : null;
+
+        long waited = ConnectionLeases.waitedNanos();
+        long start = System.nanoTime();
+        boolean success;
+        try {
+            success = switch (operation) {
+                case CREATE -> {
+                    pool.add(BookingHelper.createBooking(new BookingBuilder().build()), instance);
+                    yield true;
+                }
+                case GET -> BookingHelper.getBooking(bookingId).statusCode() == HttpStatus.SC_OK;
+                case UPDATE -> hasStatus(BookingHelper.updateBooking(bookingId, new BookingBuilder().build(), token),
+                    HttpStatus.SC_OK, token);
+                case PARTIAL_UPDATE -> hasStatus(BookingHelper.partialUpdateBooking(bookingId, partialUpdate(), token),
+                    HttpStatus.SC_OK, token);
+                case DELETE -> {
+                    pool.remove(bookingId, instance);
+                    // restful-booker answers a successful delete with 201 Created
+                    yield hasStatus(BookingHelper.deleteBooking(bookingId, token), HttpStatus.SC_CREATED, token);
+                }
+            };
+        } catch (RuntimeException | AssertionError e) {
+            success = false;
+        }
+        long leaseWait = ConnectionLeases.waitedNanos() - waited;
+        stats.get(operation).record(System.nanoTime() - start - leaseWait, success);
+        leaseWaits.record(leaseWait, true);
+    }
+
+    /**
+     * Sends an operation through the async client. The returned future completes once the outcome is recorded and
+     * never fails.
+     */
+    private CompletableFuture<?> submit(Function<BookerInstance, AsyncBookingClient> clients, Operation operation,
+                                        BookingPool pool, ThreadLocalRandom random) {
+        // Bookings are built on the user's thread, as BookingBuilder keeps its Faker per thread
+        Booking booking = operation == Operation.CREATE || operation == Operation.UPDATE
+            ? new BookingBuilder().build()
+            : null;
+        OperationStats operationStats = stats.get(operation);
+        long start = System.nanoTime();
+        if (operation == Operation.CREATE) {
+            BookerInstance instance = chooseInstance();
+            return clients.apply(instance).createBooking(booking).handle((bookingId, error) -> {
+                if (error == null) {
+                    pool.add(bookingId, instance);
+                }
+                operationStats.record(System.nanoTime() - start, error == null);
+                return null;
+            });
+        }
+
+        int index = random.nextInt(pool.size());
+        int bookingId = pool.get(index);
+        BookerInstance instance = pool.instance(index);
+        AsyncBookingClient client = clients.apply(instance);
+        if (operation == Operation.GET) {
+            return recordStatus(client, operationStats, start, client.getBooking(bookingId), HttpStatus.SC_OK, null);
+        }
+        Map<String, Object> fields = operation == Operation.PARTIAL_UPDATE ? partialUpdate() : null;
+        if (operation == Operation.DELETE) {
+            pool.remove(bookingId, instance);
+        }
+        return client.getAuthenticationToken()
+            .thenCompose(token -> {
+                // Like in blocking mode, the latency does not include getting the token
+                long sent = System.nanoTime();
+                return switch (operation) {
+                    case UPDATE -> recordStatus(client, operationStats, sent,
+                        client.updateBooking(bookingId, booking, token), HttpStatus.SC_OK, token);
+                    case PARTIAL_UPDATE -> recordStatus(client, operationStats, sent,
+                        client.partialUpdateBooking(bookingId, fields, token), HttpStatus.SC_OK, token);
+                    // restful-booker answers a successful delete with 201 Created
+                    default -> recordStatus(client, operationStats, sent,
+                        client.deleteBooking(bookingId, token), HttpStatus.SC_CREATED, token);
+                };
+            })
+            .exceptionally(error -> {
+                operationStats.record(System.nanoTime() - start, false);
+                return null;
+            });
+    }
+
+    private static CompletableFuture<Void> recordStatus(AsyncBookingClient client, OperationStats operationStats,
+                                                        long start, CompletableFuture<HttpResponse<byte[]>> response,
+                                                        int expectedStatus, String token) {
+        return response.handle((result, error) -> {
+            if (result != null && result.statusCode() == HttpStatus.SC_FORBIDDEN && token != null) {
+                client.invalidateAuthenticationToken(token);
+            }
+            operationStats.record(System.nanoTime() - start, result != null && result.statusCode() == expectedStatus);
+            return null;
+        });
+    }
+
+    private static boolean hasStatus(Response response, int expectedStatus, String token) {
+        if (response.statusCode() == HttpStatus.SC_FORBIDDEN) {
+            invalidateAuthenticationToken(token);
+        }
+        return response.statusCode() == expectedStatus;
+    }
+
+    /**
+     * @return A client per booker instance, or the same client for every instance when there is no load balancer.
+     */
+    private static Function<BookerInstance, AsyncBookingClient> asyncClients() {
+        LoadBalancer loadBalancer = BaseSpec.loadBalancer();
+        if (loadBalancer == null) {
+            AsyncBookingClient client = new AsyncBookingClient();
+            return instance -> client;
+        }
+        Map<BookerInstance, AsyncBookingClient> clients = new HashMap<>();
+        for (BookerInstance instance : loadBalancer.getInstances()) {
+            clients.put(instance, new AsyncBookingClient(instance, BaseSpec.connectionConfig()));
+        }
+        return clients::get;
+    }
+
+    /**
+     * @return The instance the next new booking goes to, or null when there is no load balancer.
+     */
+    private static BookerInstance chooseInstance() {
+        LoadBalancer loadBalancer = BaseSpec.loadBalancer();
+        return loadBalancer == null ? null : loadBalancer.choose();
+    }
+
+    /**
+     * Runs REST-assured requests with the calling thread pinned to the given instance, then restores its pin.
+     */
+    private static <T> T onInstance(BookerInstance instance, Supplier<T> requests) {
+        BookerInstance previous = LoadBalancer.pinned();
+        LoadBalancer.pin(instance);
+        try {
+            return requests.get();
+        } finally {
+            LoadBalancer.pin(previous);
+        }
+    }
+
+    private static Map<String, Object> partialUpdate() {
+        Booking booking = new BookingBuilder().build();
+        return Map.of("firstname", booking.getFirstname(), "lastname", booking.getLastname());
+    }
+
+    /**
+     * The IDs of the bookings owned by one user, with the instance holding each of them. Booking IDs are only unique
+     * per instance. With the async client, bookings are added from the threads completing the responses, so access is
+     * synchronized; in blocking mode the lock is never contended.
+     */
+    private static final class BookingPool {
+        private int[] ids = new int[16];
+        private BookerInstance[] instances = new BookerInstance[16];
+        private int size;
+
+        synchronized void add(int id, BookerInstance instance) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                instances = Arrays.copyOf(instances, size * 2);
+            }
+            instances[size] = instance;
+            ids[size++] = id;
+        }
+
+        synchronized int get(int index) {
+            return ids[index];
+        }
+
+        /**
+         * @return The instance holding the booking at the given index, null when there is no load balancer.
+         */
+        synchronized BookerInstance instance(int index) {
+            return instances[index];
+        }
+
+        synchronized void remove(int id, BookerInstance instance) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id && instances[i] == instance) {
+                    ids[i] = ids[--size];
+                    instances[i] = instances[size];
+                    instances[size] = null;
+                    return;
+                }
+            }
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        synchronized boolean isEmpty() {
+            return size == 0;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package load;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Describes the traffic the {@link LoadGenerator} sends: how many concurrent users, for how long, at what rate
+ * and with which mix of booking operations.
+ * <p>
+ * {@link #fromSystemProperties()} reads the profile from the following system properties:
+ * <ul>
+ *     <li>{@code booker.load.duration} - run time in seconds (30)</li>
+ *     <li>{@code booker.load.users} - number of concurrent simulated users (16)</li>
+ *     <li>{@code booker.load.rps} - target requests per second across all users, 0 for as fast as possible (0)</li>
+ *     <li>{@code booker.load.mix} - relative weight of each operation
+ *         ("create=20,get=50,update=10,partial_update=10,delete=10")</li>
+ *     <li>{@code booker.load.seed} - bookings each user creates before the measured run starts (5)</li>
+ *     <li>{@code booker.load.client} - {@code blocking} to send every request with REST-assured from the user's
+ *         thread, {@code async} to send them through one shared {@link client.AsyncBookingClient} (blocking)</li>
+ *     <li>{@code booker.load.pipeline} - requests each user keeps in flight with the async client (16)</li>
+ * </ul>
+ */
+@Getter
+@Builder
+public class LoadProfile {
+
+    public static final String DEFAULT_MIX = "create=20,get=50,update=10,partial_update=10,delete=10";
+
+    @Builder.Default
+    private final Duration duration = Duration.ofSeconds(30);
+
+    @Builder.Default
+    private final int users = 16;
+
+    @Builder.Default
+    private final int targetRps = 0;
+
+    @Builder.Default
+    private final Map<Operation, Integer> mix = parseMix(DEFAULT_MIX);
+
+    @Builder.Default
+    private final int seedBookingsPerUser = 5;
+
+    @Builder.Default
+    private final Client client = Client.BLOCKING;
+
+    @Builder.Default
+    private final int pipeline = 16;
+
+    /**
+     * @return A profile built from the {@code booker.load.*} system properties.
+     */
+    public static LoadProfile fromSystemProperties() {
+        return LoadProfile.builder()
+            .duration(Duration.ofSeconds(Long.getLong("booker.load.duration", 30)))
+            .users(Integer.getInteger("booker.load.users", 16))
+            .targetRps(Integer.getInteger("booker.load.rps", 0))
+            .mix(parseMix(System.getProperty("booker.load.mix", DEFAULT_MIX)))
+            .seedBookingsPerUser(Integer.getInteger("booker.load.seed", 5))
+            .client(Client.valueOf(System.getProperty("booker.load.client", "blocking").toUpperCase(Locale.ROOT)))
+            .pipeline(Integer.getInteger("booker.load.pipeline", 16))
+            .build();
+    }
+
+    /**
+     * Parses an operation mix such as "create=20,get=80". Operations that are not listed are not sent.
+     *
+     * @param mix Comma separated operation=weight pairs.
+     * @return The weight of each operation.
+     */
+    public static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] pair = entry.trim().split("=");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Invalid operation mix entry '" + entry + "', expected operation=weight");
+            }
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Operation weight must not be negative: " + entry);
+            }
+            weights.put(Operation.valueOf(pair[0].trim().toUpperCase(Locale.ROOT)), weight);
+        }
+        if (weights.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("Operation mix '" + mix + "' has no positive weights");
+        }
+        return weights;
+    }
+
+    /**
+     * How the simulated users send their requests.
+     */
+    public enum Client {
+        /**
+         * Each user sends one request at a time through REST-assured and waits for its response.
+         */
+        BLOCKING,
+        /**
+         * Each user keeps up to {@link LoadProfile#getPipeline()} requests in flight through a shared
+         * {@link client.AsyncBookingClient}, which caps the requests in flight across all users at
+         * {@code booker.http.maxTotal}.
+         */
+        ASYNC
+    }
+}
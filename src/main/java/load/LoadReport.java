@@ -0,0 +1,107 @@
+package load;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Throughput and latency percentiles per endpoint for a completed load run, and how long requests waited for a pooled
+ * connection before they were sent.
+ */
+public class LoadReport {
+
+    private final Map<Operation, OperationStats> stats;
+    private final OperationStats leaseWaits;
+    private final Duration elapsed;
+
+    public LoadReport(Map<Operation, OperationStats> stats, OperationStats leaseWaits, Duration elapsed) {
+        this.stats = stats;
+        this.leaseWaits = leaseWaits;
+        this.elapsed = elapsed;
+    }
+
+    /**
+     * @return The measured run time, excluding seeding.
+     */
+    public Duration getElapsed() {
+        return elapsed;
+    }
+
+    /**
+     * @param operation The operation.
+     * @return The latencies recorded for the operation, in microseconds.
+     */
+    public Histogram latencies(Operation operation) {
+        return stats.get(operation).latencies();
+    }
+
+    /**
+     * @param operation The operation.
+     * @return The number of failed requests for the operation.
+     */
+    public long errors(Operation operation) {
+        return stats.get(operation).errors();
+    }
+
+    /**
+     * @return The time each request sent with REST-assured waited for a pooled connection, in microseconds. Not
+     * included in the latencies.
+     */
+    public Histogram leaseWaits() {
+        return leaseWaits.latencies();
+    }
+
+    /**
+     * @return The total number of requests sent during the measured run.
+     */
+    public long totalRequests() {
+        return stats.values().stream().mapToLong(s -> s.latencies().getTotalCount()).sum();
+    }
+
+    /**
+     * @return The total number of failed requests during the measured run.
+     */
+    public long totalErrors() {
+        return stats.values().stream().mapToLong(OperationStats::errors).sum();
+    }
+
+    /**
+     * Prints one line per endpoint with request count, errors, throughput and latency percentiles in milliseconds,
+     * followed by the connection lease waits when requests were sent with REST-assured.
+     *
+     * @param out The stream to print to.
+     */
+    public void print(PrintStream out) {
+        double seconds = elapsed.toNanos() / 1e9;
+        String format = "%-22s %10s %8s %10s %9s %9s %9s %9s%n";
+        out.printf(format, "Endpoint", "Requests", "Errors", "Req/s", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        stats.forEach((operation, operationStats) -> {
+            Histogram latencies = operationStats.latencies();
+            out.printf(format,
+                operation.endpoint(),
+                latencies.getTotalCount(),
+                operationStats.errors(),
+                String.format("%.1f", latencies.getTotalCount() / seconds),
+                millis(latencies.getValueAtPercentile(50)),
+                millis(latencies.getValueAtPercentile(95)),
+                millis(latencies.getValueAtPercentile(99)),
+                millis(latencies.getMaxValue()));
+        });
+        out.printf(format, "Total", totalRequests(), totalErrors(),
+            String.format("%.1f", totalRequests() / seconds), "", "", "", "");
+        Histogram waits = leaseWaits.latencies();
+        if (waits.getTotalCount() > 0) {
+            out.printf(format, "Connection lease wait", waits.getTotalCount(), "", "",
+                millis(waits.getValueAtPercentile(50)),
+                millis(waits.getValueAtPercentile(95)),
+                millis(waits.getValueAtPercentile(99)),
+                millis(waits.getMaxValue()));
+        }
+    }
+
+    private static String millis(long micros) {
+        return String.format("%.2f", micros / 1000.0);
+    }
+}
@@ -0,0 +1,33 @@
+package load;
+
+/**
+ * The booking operations the load generator can send.
+ */
+public enum Operation {
+
+    CREATE("POST /booking"),
+    GET("GET /booking/{id}"),
+    UPDATE("PUT /booking/{id}"),
+    PARTIAL_UPDATE("PATCH /booking/{id}"),
+    DELETE("DELETE /booking/{id}");
+
+    private final String endpoint;
+
+    Operation(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    /**
+     * @return The HTTP method and path template of the operation, e.g. "GET /booking/{id}".
+     */
+    public String endpoint() {
+        return endpoint;
+    }
+
+    /**
+     * @return Whether the operation acts on an existing booking.
+     */
+    public boolean needsBooking() {
+        return this != CREATE;
+    }
+}
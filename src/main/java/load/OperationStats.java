@@ -0,0 +1,45 @@
+package load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency and error counts of one operation, safe to record into from many user threads at once.
+ */
+public class OperationStats {
+
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final ConcurrentHistogram latencies = new ConcurrentHistogram(MAX_LATENCY_MICROS, 3);
+    private final LongAdder errors = new LongAdder();
+
+    /**
+     * Records a completed request.
+     *
+     * @param latencyNanos The time taken by the request in nanoseconds.
+     * @param success      Whether the response was the one expected.
+     */
+    public void record(long latencyNanos, boolean success) {
+        latencies.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), MAX_LATENCY_MICROS));
+        if (!success) {
+            errors.increment();
+        }
+    }
+
+    /**
+     * @return A copy of the latencies recorded so far, in microseconds.
+     */
+    public Histogram latencies() {
+        return latencies.copy();
+    }
+
+    /**
+     * @return The number of requests that failed or returned an unexpected status code.
+     */
+    public long errors() {
+        return errors.sum();
+    }
+}
@@ -0,0 +1,62 @@
+package load;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Creates the executors that run simulated users.
+ * <p>
+ * On Java 21 and later every user gets its own virtual thread, so tens of thousands of users blocked in REST-assured
+ * calls only cost a few kilobytes of heap each. The project is compiled for Java 17, so the virtual thread executor
+ * is looked up reflectively; on older runtimes, or with {@code -Dbooker.load.virtualThreads=false}, a fixed pool of
+ * platform threads is used instead.
+ */
+public final class UserThreads {
+
+    private static final MethodHandle VIRTUAL_THREAD_EXECUTOR = findVirtualThreadExecutor();
+
+    private UserThreads() {
+    }
+
+    /**
+     * @return Whether users run on virtual threads in this JVM.
+     */
+    public static boolean virtualThreadsAvailable() {
+        return VIRTUAL_THREAD_EXECUTOR != null;
+    }
+
+    /**
+     * Creates an executor able to run the given number of users concurrently.
+     *
+     * @param users The number of users that will run at the same time.
+     * @return A thread-per-task virtual thread executor, or a fixed pool of {@code users} platform threads.
+     */
+    public static ExecutorService newUserExecutor(int users) {
+        if (VIRTUAL_THREAD_EXECUTOR != null) {
+            try {
+                return (ExecutorService) VIRTUAL_THREAD_EXECUTOR.invokeExact();
+            } catch (Throwable e) {
+                throw new IllegalStateException("Unable to create virtual thread executor", e);
+            }
+        }
+        return Executors.newFixedThreadPool(users);
+    }
+
+    private static MethodHandle findVirtualThreadExecutor() {
+        if (!Boolean.parseBoolean(System.getProperty("booker.load.virtualThreads", "true"))) {
+            return null;
+        }
+        try {
+            MethodHandle handle = MethodHandles.publicLookup().findStatic(Executors.class,
+                "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class));
+            // Java 19 and 20 have the method, but only with --enable-preview
+            ((ExecutorService) handle.invokeExact()).shutdown();
+            return handle;
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package load;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs a booking scenario, such as create, read, update and delete of one booking, in a loop for many simulated
+ * users at once. Users run on virtual threads where available (see {@link UserThreads}), so a single JVM can keep
+ * tens of thousands of blocking REST-assured scenarios in flight.
+ */
+public class VirtualUserRunner {
+
+    /**
+     * One iteration of the work a simulated user repeats.
+     */
+    @FunctionalInterface
+    public interface Scenario {
+
+        /**
+         * @param user Index of the user running the iteration, from 0 to users - 1.
+         * @throws Exception If the iteration failed, it is counted as a failure and the user carries on.
+         */
+        void run(int user) throws Exception;
+    }
+
+    /**
+     * Outcome of a run.
+     *
+     * @param iterations The number of scenario iterations that completed successfully.
+     * @param failures   The number of iterations that threw.
+     * @param elapsed    How long the run took.
+     * @param firstFailure The first failure thrown by the scenario, or null.
+     */
+    public record Result(long iterations, long failures, Duration elapsed, Throwable firstFailure) {
+
+        /**
+         * @return Successful iterations per second.
+         */
+        public double throughput() {
+            return iterations / (elapsed.toNanos() / 1e9);
+        }
+    }
+
+    private final int users;
+    private final Duration duration;
+
+    /**
+     * @param users    The number of users running the scenario concurrently.
+     * @param duration How long each user keeps repeating the scenario.
+     */
+    public VirtualUserRunner(int users, Duration duration) {
+        this.users = users;
+        this.duration = duration;
+    }
+
+    /**
+     * Starts all users and waits until each has finished its last iteration.
+     *
+     * @param scenario The scenario every user repeats.
+     * @return The number of successful and failed iterations.
+     * @throws InterruptedException If interrupted while waiting for the users.
+     */
+    public Result run(Scenario scenario) throws InterruptedException {
+        LongAdder iterations = new LongAdder();
+        LongAdder failures = new LongAdder();
+        AtomicReference<Throwable> firstFailure = new AtomicReference<>();
+
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+
+        ExecutorService executor = UserThreads.newUserExecutor(users);
+        for (int i = 0; i < users; i++) {
+            int user = i;
+            executor.execute(() -> {
+                while (System.nanoTime() < deadline && !Thread.currentThread().isInterrupted()) {
+                    try {
+                        scenario.run(user);
+                        iterations.increment();
+                    } catch (Exception | AssertionError e) {
+                        failures.increment();
+                        firstFailure.compareAndSet(null, e);
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        if (!executor.awaitTermination(duration.toMinutes() + 5, TimeUnit.MINUTES)) {
+            executor.shutdownNow();
+        }
+        return new Result(iterations.sum(), failures.sum(), Duration.ofNanos(System.nanoTime() - start),
+            firstFailure.get());
+    }
+}
@@ -0,0 +1,185 @@
+package metrics;
+
+import io.restassured.response.Response;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static helpers.JsonSupport.MAPPER;
+
+/**
+ * JVM-wide registry of the {@link EndpointStats} recorded by {@link EndpointMetricsFilter}, keyed by method and path
+ * template, e.g. "GET /booking/{id}".
+ * <p>
+ * When the JVM exits, a summary table is printed and the same figures are written as JSON to the file named by the
+ * system property {@code booker.metrics.file} (target/endpoint-metrics.json). Recording is turned off with
+ * {@code -Dbooker.metrics=false}.
+ */
+public final class EndpointMetrics {
+
+    public static final String ENABLED_PROPERTY = "booker.metrics";
+    public static final String FILE_PROPERTY = "booker.metrics.file";
+
+    private static final Map<String, EndpointStats> STATS = new ConcurrentHashMap<>();
+
+    static {
+        if (enabled()) {
+            Runtime.getRuntime().addShutdownHook(new Thread(EndpointMetrics::dump, "endpoint-metrics-dump"));
+        }
+    }
+
+    private EndpointMetrics() {
+    }
+
+    /**
+     * @return Whether requests are recorded, true unless {@code booker.metrics} is set to false.
+     */
+    public static boolean enabled() {
+        return Boolean.parseBoolean(System.getProperty(ENABLED_PROPERTY, "true"));
+    }
+
+    /**
+     * Records a completed request.
+     *
+     * @param endpoint     The method and path template, e.g. "GET /booking/{id}".
+     * @param latencyNanos The time taken by the request in nanoseconds.
+     * @param sizeBytes    The size of the response body in bytes.
+     * @param status       The response status code.
+     */
+    public static void record(String endpoint, long latencyNanos, long sizeBytes, int status) {
+        EndpointStats stats = STATS.get(endpoint);
+        if (stats == null) {
+            stats = STATS.computeIfAbsent(endpoint, e -> new EndpointStats());
+        }
+        stats.record(latencyNanos, sizeBytes, status);
+    }
+
+    /**
+     * @param response A REST-assured response.
+     * @return The size of the body from the Content-Length header, or from the body if there is no such header.
+     */
+    public static long responseSize(Response response) {
+        long contentLength = contentLength(response);
+        return contentLength >= 0 ? contentLength : response.asByteArray().length;
+    }
+
+    /**
+     * @param response A REST-assured response.
+     * @return The size of the body from the Content-Length header, or -1 if there is no valid one. Unlike
+     * {@link #responseSize(Response)} this never reads the body, for responses the caller streams.
+     */
+    public static long contentLength(Response response) {
+        String contentLength = response.getHeader("Content-Length");
+        if (contentLength != null) {
+            try {
+                return Long.parseLong(contentLength);
+            } catch (NumberFormatException e) {
+                // no usable length
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return The statistics recorded so far, ordered by endpoint.
+     */
+    public static Map<String, EndpointStats> snapshot() {
+        return new TreeMap<>(STATS);
+    }
+
+    /**
+     * Discards everything recorded so far.
+     */
+    public static void reset() {
+        STATS.clear();
+    }
+
+    /**
+     * Prints one line per endpoint with request count, status codes, latency percentiles in milliseconds and the
+     * mean response size.
+     *
+     * @param out The stream to print to.
+     */
+    public static void print(PrintStream out) {
+        String format = "%-26s %9s %9s %9s %9s %9s %10s  %s%n";
+        out.printf(format, "Endpoint", "Requests", "p50 ms", "p95 ms", "p99 ms", "max ms", "avg bytes", "Statuses");
+        snapshot().forEach((endpoint, stats) -> {
+            Histogram latencies = stats.latencies();
+            out.printf(format,
+                endpoint,
+                latencies.getTotalCount(),
+                millis(latencies.getValueAtPercentile(50)),
+                millis(latencies.getValueAtPercentile(95)),
+                millis(latencies.getValueAtPercentile(99)),
+                millis(latencies.getMaxValue()),
+                String.format("%.0f", stats.sizes().getMean()),
+                stats.statuses());
+        });
+    }
+
+    /**
+     * Writes the statistics recorded so far as a JSON array with one object per endpoint.
+     *
+     * @param file The file to write, its parent directories are created if needed.
+     */
+    public static void writeJson(Path file) {
+        List<Map<String, Object>> endpoints = new ArrayList<>();
+        snapshot().forEach((endpoint, stats) -> {
+            Histogram latencies = stats.latencies();
+            Histogram sizes = stats.sizes();
+
+            Map<String, Object> latencyMillis = new LinkedHashMap<>();
+            latencyMillis.put("mean", latencies.getMean() / 1000.0);
+            latencyMillis.put("p50", latencies.getValueAtPercentile(50) / 1000.0);
+            latencyMillis.put("p95", latencies.getValueAtPercentile(95) / 1000.0);
+            latencyMillis.put("p99", latencies.getValueAtPercentile(99) / 1000.0);
+            latencyMillis.put("max", latencies.getMaxValue() / 1000.0);
+
+            Map<String, Object> responseBytes = new LinkedHashMap<>();
+            responseBytes.put("mean", sizes.getMean());
+            responseBytes.put("max", sizes.getMaxValue());
+
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("endpoint", endpoint);
+            entry.put("requests", latencies.getTotalCount());
+            entry.put("latencyMillis", latencyMillis);
+            entry.put("responseBytes", responseBytes);
+            entry.put("statuses", stats.statuses());
+            endpoints.add(entry);
+        });
+
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            MAPPER.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), endpoints);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write endpoint metrics to " + file, e);
+        }
+    }
+
+    private static void dump() {
+        if (STATS.isEmpty()) {
+            return;
+        }
+        System.out.println("Endpoint metrics:");
+        print(System.out);
+        Path file = Path.of(System.getProperty(FILE_PROPERTY, "target/endpoint-metrics.json"));
+        writeJson(file);
+        System.out.println("Endpoint metrics written to " + file.toAbsolutePath());
+    }
+
+    private static String millis(long micros) {
+        return String.format("%.2f", micros / 1000.0);
+    }
+}
@@ -0,0 +1,77 @@
+package metrics;
+
+import io.restassured.filter.FilterContext;
+import io.restassured.filter.OrderedFilter;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import specs.BaseSpec;
+import specs.ConnectionLeases;
+
+import java.util.regex.Pattern;
+
+/**
+ * Records the latency, response size and status code of every request into {@link EndpointMetrics}, and into the
+ * {@link MetricsScope} entered by the calling thread.
+ * <p>
+ * Requests are grouped by method and path template, so "/booking/{id}" is one endpoint whatever the ID. Paths
+ * written with a literal ID, such as "/booking/12", are normalised to the same template. The filter runs after
+ * all other filters except the one in {@link specs.BaseSpec} that reads the response body. The latency therefore
+ * includes the body download, but not logging, the other filters or the wait for a pooled connection, which is
+ * recorded in {@link ConnectionLeases}.
+ */
+public class EndpointMetricsFilter implements OrderedFilter {
+
+    private static final Pattern NUMERIC_SEGMENT = Pattern.compile("/\\d+(?=/|$)");
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec,
+                           FilterableResponseSpecification responseSpec,
+                           FilterContext ctx) {
+        boolean streamed = BaseSpec.streamsBody(requestSpec);
+        long waited = ConnectionLeases.waitedNanos();
+        long start = System.nanoTime();
+        Response response = ctx.next(requestSpec, responseSpec);
+        long latency = System.nanoTime() - start - (ConnectionLeases.waitedNanos() - waited);
+
+        String endpoint = endpoint(requestSpec.getMethod(), requestSpec.getUserDefinedPath());
+        long size = streamed ? EndpointMetrics.contentLength(response) : EndpointMetrics.responseSize(response);
+        record(MetricsScope.current(), endpoint, latency, Math.max(size, 0), response.getStatusCode());
+        return response;
+    }
+
+    /**
+     * Records a request into {@link EndpointMetrics} and the given scope, also for requests sent without
+     * REST-assured, such as the ones of {@link client.AsyncBookingClient}.
+     *
+     * @param scope        The scope entered by the thread that sent the request, or null.
+     * @param endpoint     The endpoint key, e.g. "GET /booking/{id}".
+     * @param latencyNanos The time taken by the request in nanoseconds.
+     * @param sizeBytes    The size of the response body in bytes.
+     * @param status       The response status code.
+     */
+    public static void record(MetricsScope scope, String endpoint, long latencyNanos, long sizeBytes, int status) {
+        EndpointMetrics.record(endpoint, latencyNanos, sizeBytes, status);
+        if (scope != null) {
+            scope.record(endpoint, latencyNanos, sizeBytes, status);
+        }
+    }
+
+    @Override
+    public int getOrder() {
+        return LOWEST_PRECEDENCE - 1;
+    }
+
+    /**
+     * @param method The HTTP method.
+     * @param path   The path as written by the caller, with or without path parameters.
+     * @return The endpoint key, e.g. "GET /booking/{id}".
+     */
+    public static String endpoint(String method, String path) {
+        int query = path.indexOf('?');
+        if (query >= 0) {
+            path = path.substring(0, query);
+        }
+        return method + " " + NUMERIC_SEGMENT.matcher(path).replaceAll("/{id}");
+    }
+}
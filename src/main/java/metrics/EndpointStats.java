@@ -0,0 +1,64 @@
+package metrics;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency, response size and status code counts of one endpoint, safe to record into from many threads at once
+ * without locking.
+ */
+public class EndpointStats {
+
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+    private static final long MAX_SIZE_BYTES = 64L * 1024 * 1024;
+
+    private final ConcurrentHistogram latencies = new ConcurrentHistogram(MAX_LATENCY_MICROS, 3);
+    private final ConcurrentHistogram sizes = new ConcurrentHistogram(MAX_SIZE_BYTES, 2);
+    private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+    /**
+     * Records a completed request.
+     *
+     * @param latencyNanos The time taken by the request in nanoseconds.
+     * @param sizeBytes    The size of the response body in bytes.
+     * @param status       The response status code.
+     */
+    public void record(long latencyNanos, long sizeBytes, int status) {
+        latencies.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), MAX_LATENCY_MICROS));
+        sizes.recordValue(Math.max(0, Math.min(sizeBytes, MAX_SIZE_BYTES)));
+        LongAdder count = statuses.get(status);
+        if (count == null) {
+            count = statuses.computeIfAbsent(status, s -> new LongAdder());
+        }
+        count.increment();
+    }
+
+    /**
+     * @return A copy of the latencies recorded so far, in microseconds.
+     */
+    public Histogram latencies() {
+        return latencies.copy();
+    }
+
+    /**
+     * @return A copy of the response sizes recorded so far, in bytes.
+     */
+    public Histogram sizes() {
+        return sizes.copy();
+    }
+
+    /**
+     * @return The number of responses per status code, ordered by status code.
+     */
+    public Map<Integer, Long> statuses() {
+        Map<Integer, Long> counts = new TreeMap<>();
+        statuses.forEach((status, count) -> counts.put(status, count.sum()));
+        return counts;
+    }
+}
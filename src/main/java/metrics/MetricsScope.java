@@ -0,0 +1,67 @@
+package metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Endpoint statistics for a subset of the requests, such as the requests of one test class, alongside the JVM-wide
+ * figures in {@link EndpointMetrics}.
+ * <p>
+ * A scope is entered per thread: {@link EndpointMetricsFilter} records into the scope the calling thread has
+ * entered, if any. Several threads may enter the same scope at once.
+ */
+public class MetricsScope {
+
+    private static final ThreadLocal<MetricsScope> CURRENT = new ThreadLocal<>();
+
+    private final String name;
+    private final Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+
+    /**
+     * @param name The name of the scope, e.g. the test class name.
+     */
+    public MetricsScope(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Makes the calling thread record into this scope, until {@link #exit()} is called.
+     */
+    public void enter() {
+        CURRENT.set(this);
+    }
+
+    /**
+     * Stops recording the calling thread's requests into a scope.
+     */
+    public static void exit() {
+        CURRENT.remove();
+    }
+
+    /**
+     * @return The scope the calling thread has entered, or null.
+     */
+    public static MetricsScope current() {
+        return CURRENT.get();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    void record(String endpoint, long latencyNanos, long sizeBytes, int status) {
+        EndpointStats endpointStats = stats.get(endpoint);
+        if (endpointStats == null) {
+            endpointStats = stats.computeIfAbsent(endpoint, e -> new EndpointStats());
+        }
+        endpointStats.record(latencyNanos, sizeBytes, status);
+    }
+
+    /**
+     * @return The statistics recorded in this scope so far, ordered by endpoint.
+     */
+    public Map<String, EndpointStats> snapshot() {
+        return new TreeMap<>(stats);
+    }
+}
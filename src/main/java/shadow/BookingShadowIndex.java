@@ -0,0 +1,338 @@
+package shadow;
+
+import cluster.BookerInstance;
+import cluster.LoadBalancer;
+import model.Booking;
+import specs.BaseSpec;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Client-side copy of the bookings a run created, indexed like booker's GET /booking filters, so the IDs a
+ * filtered listing should return can be computed without asking booker.
+ * <p>
+ * First and last names are hash indexed, checkin and checkout dates are kept in sorted maps of epoch days, and every
+ * index holds its IDs in int arrays. A query starts from the smallest matching index entry or date range and checks
+ * the other filters against the copied booking, so a query over hundreds of thousands of bookings takes well under a
+ * millisecond unless it matches most of them. The result is a sorted array of IDs.
+ * <p>
+ * booker documents the {@code checkin} filter as checkin on or after the date and {@code checkout} as checkout on or
+ * before it, but compares strictly (see ISSUES.md), so both are supported, see {@link DateBounds}.
+ * <p>
+ * {@link #shared()} returns the index of the booker instance the calling thread sends its requests to, fed with every
+ * create, update, partial update and delete sent through {@link BaseSpec} by a {@link ShadowIndexFilter}. Bookings
+ * that are not created through REST-assured, or created with XML, are not in it.
+ */
+public class BookingShadowIndex {
+
+    /**
+     * How the {@code checkin} and {@code checkout} filters compare dates.
+     */
+    public enum DateBounds {
+        /** Checkin on or after the checkin filter and checkout on or before the checkout filter, as documented. */
+        INCLUSIVE,
+        /** Checkin after the checkin filter and checkout before the checkout filter, as booker compares them. */
+        EXCLUSIVE
+    }
+
+    private static final int[] NONE = new int[0];
+    private static final int NO_DATE = Integer.MIN_VALUE;
+    private static final Map<String, BookingShadowIndex> SHARED = new ConcurrentHashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, Entry> bookings = new HashMap<>();
+    private final Map<String, IdList> byFirstname = new HashMap<>();
+    private final Map<String, IdList> byLastname = new HashMap<>();
+    private final NavigableMap<Integer, IdList> byCheckin = new TreeMap<>();
+    private final NavigableMap<Integer, IdList> byCheckout = new TreeMap<>();
+
+    /**
+     * The indexed fields of a booking, dates as epoch days or {@link #NO_DATE} when missing or invalid.
+     */
+    private record Entry(String firstname, String lastname, int checkin, int checkout) {
+    }
+
+    /**
+     * @return The index of the booker instance the calling thread's requests go to.
+     */
+    public static BookingShadowIndex shared() {
+        LoadBalancer loadBalancer = BaseSpec.loadBalancer();
+        if (loadBalancer == null) {
+            return shared(BaseSpec.baseUri().getAuthority());
+        }
+        BookerInstance instance = loadBalancer.stickyInstance();
+        return shared(instance.getHost() + ":" + instance.getPort());
+    }
+
+    /**
+     * @param authority The host and port of the booker instance, e.g. "localhost:32768".
+     * @return The index of the instance, empty until bookings are created on it.
+     */
+    static BookingShadowIndex shared(String authority) {
+        return SHARED.computeIfAbsent(authority, key -> new BookingShadowIndex());
+    }
+
+    /**
+     * Adds a booking, or replaces it if the ID is already indexed.
+     *
+     * @param id      The booking ID.
+     * @param booking The booking as booker holds it.
+     */
+    public void put(int id, Booking booking) {
+        Entry entry = new Entry(booking.getFirstname(), booking.getLastname(),
+            epochDay(booking.getBookingDates() == null ? null : booking.getBookingDates().getCheckin()),
+            epochDay(booking.getBookingDates() == null ? null : booking.getBookingDates().getCheckout()));
+        lock.writeLock().lock();
+        try {
+            Entry previous = bookings.put(id, entry);
+            if (previous != null) {
+                unindex(id, previous);
+            }
+            index(id, entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param id The booking ID.
+     * @return Whether the booking was indexed.
+     */
+    public boolean remove(int id) {
+        lock.writeLock().lock();
+        try {
+            Entry previous = bookings.remove(id);
+            if (previous != null) {
+                unindex(id, previous);
+            }
+            return previous != null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean contains(int id) {
+        lock.readLock().lock();
+        try {
+            return bookings.containsKey(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return bookings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Computes the IDs GET /booking should list for the given query parameters, in the form
+     * {@link helpers.BookingHelper#getBookingIds} takes them. Parameters other than firstname, lastname, checkin and
+     * checkout are ignored, as booker does.
+     *
+     * @param filters The query parameters, dates as yyyy-MM-dd.
+     * @param bounds  How dates are compared.
+     * @return The matching booking IDs in ascending order.
+     * @throws DateTimeParseException If a date filter is not a valid date.
+     */
+    public int[] query(Map<String, ?> filters, DateBounds bounds) {
+        return query(string(filters.get("firstname")), string(filters.get("lastname")),
+            date(filters.get("checkin")), date(filters.get("checkout")), bounds);
+    }
+
+    /**
+     * Computes the IDs of the indexed bookings matching every filter that is not null.
+     *
+     * @param firstname The first name, or null.
+     * @param lastname  The last name, or null.
+     * @param checkin   The checkin filter, or null.
+     * @param checkout  The checkout filter, or null.
+     * @param bounds    How dates are compared.
+     * @return The matching booking IDs in ascending order.
+     */
+    public int[] query(String firstname, String lastname, LocalDate checkin, LocalDate checkout, DateBounds bounds) {
+        boolean inclusive = bounds == DateBounds.INCLUSIVE;
+        int checkinDay = checkin == null ? NO_DATE : (int) checkin.toEpochDay();
+        int checkoutDay = checkout == null ? NO_DATE : (int) checkout.toEpochDay();
+
+        lock.readLock().lock();
+        try {
+            // Start from the smallest set of candidates
+            Collection<IdList> candidates = null;
+            long count = Long.MAX_VALUE;
+            int filters = 0;
+            if (firstname != null) {
+                filters++;
+                IdList ids = byFirstname.get(firstname);
+                if (ids == null) {
+                    return NONE;
+                }
+                candidates = List.of(ids);
+                count = ids.size;
+            }
+            if (lastname != null) {
+                filters++;
+                IdList ids = byLastname.get(lastname);
+                if (ids == null) {
+                    return NONE;
+                }
+                if (ids.size < count) {
+                    candidates = List.of(ids);
+                    count = ids.size;
+                }
+            }
+            if (checkin != null) {
+                filters++;
+                Collection<IdList> range = byCheckin.tailMap(checkinDay, inclusive).values();
+                long size = size(range);
+                if (size < count) {
+                    candidates = range;
+                    count = size;
+                }
+            }
+            if (checkout != null) {
+                filters++;
+                Collection<IdList> range = byCheckout.headMap(checkoutDay, inclusive).values();
+                long size = size(range);
+                if (size < count) {
+                    candidates = range;
+                    count = size;
+                }
+            }
+            if (candidates == null) {
+                candidates = allIds();
+                count = bookings.size();
+            }
+
+            int[] result = new int[(int) count];
+            int size = 0;
+            for (IdList ids : candidates) {
+                for (int i = 0; i < ids.size; i++) {
+                    int id = ids.ids[i];
+                    // With a single filter every candidate matches
+                    if (filters <= 1
+                        || matches(bookings.get(id), firstname, lastname, checkinDay, checkoutDay, inclusive)) {
+                        result[size++] = id;
+                    }
+                }
+            }
+            result = size == result.length ? result : Arrays.copyOf(result, size);
+            Arrays.sort(result);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static boolean matches(Entry entry, String firstname, String lastname, int checkin, int checkout,
+                                   boolean inclusive) {
+        return (firstname == null || firstname.equals(entry.firstname()))
+            && (lastname == null || lastname.equals(entry.lastname()))
+            && (checkin == NO_DATE || entry.checkin() != NO_DATE
+                && (inclusive ? entry.checkin() >= checkin : entry.checkin() > checkin))
+            && (checkout == NO_DATE || entry.checkout() != NO_DATE
+                && (inclusive ? entry.checkout() <= checkout : entry.checkout() < checkout));
+    }
+
+    private Collection<IdList> allIds() {
+        IdList all = new IdList();
+        bookings.keySet().forEach(all::add);
+        return List.of(all);
+    }
+
+    private void index(int id, Entry entry) {
+        if (entry.firstname() != null) {
+            byFirstname.computeIfAbsent(entry.firstname(), key -> new IdList()).add(id);
+        }
+        if (entry.lastname() != null) {
+            byLastname.computeIfAbsent(entry.lastname(), key -> new IdList()).add(id);
+        }
+        if (entry.checkin() != NO_DATE) {
+            byCheckin.computeIfAbsent(entry.checkin(), key -> new IdList()).add(id);
+        }
+        if (entry.checkout() != NO_DATE) {
+            byCheckout.computeIfAbsent(entry.checkout(), key -> new IdList()).add(id);
+        }
+    }
+
+    private void unindex(int id, Entry entry) {
+        remove(byFirstname, entry.firstname(), id);
+        remove(byLastname, entry.lastname(), id);
+        remove(byCheckin, entry.checkin(), id);
+        remove(byCheckout, entry.checkout(), id);
+    }
+
+    private static <K> void remove(Map<K, IdList> index, K key, int id) {
+        IdList ids = index.get(key);
+        if (ids != null && ids.remove(id) && ids.size == 0) {
+            index.remove(key);
+        }
+    }
+
+    private static long size(Collection<IdList> lists) {
+        long size = 0;
+        for (IdList ids : lists) {
+            size += ids.size;
+        }
+        return size;
+    }
+
+    private static int epochDay(String date) {
+        if (date == null) {
+            return NO_DATE;
+        }
+        try {
+            return (int) LocalDate.parse(date).toEpochDay();
+        } catch (DateTimeParseException e) {
+            return NO_DATE;
+        }
+    }
+
+    private static String string(Object value) {
+        return value == null ? null : value.toString();
+    }
+
+    private static LocalDate date(Object value) {
+        return value == null ? null : LocalDate.parse(value.toString());
+    }
+
+    /**
+     * The IDs of one index entry, in no particular order.
+     */
+    private static final class IdList {
+        private int[] ids = new int[4];
+        private int size;
+
+        void add(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        boolean remove(int id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    ids[i] = ids[--size];
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
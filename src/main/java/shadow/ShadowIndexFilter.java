@@ -0,0 +1,104 @@
+package shadow;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.restassured.filter.FilterContext;
+import io.restassured.filter.OrderedFilter;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import org.apache.http.HttpStatus;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static helpers.JsonSupport.BOOKING_READER;
+import static helpers.JsonSupport.MAPPER;
+
+/**
+ * Keeps the {@link BookingShadowIndex} of each booker instance in step with the bookings created, updated and deleted
+ * through REST-assured, from the JSON responses booker returns. A booking updated with an XML request is removed from
+ * the index, as its new values are not known.
+ * <p>
+ * Turned off with {@code -Dbooker.shadow=false}, as the load and stress profiles do.
+ */
+public class ShadowIndexFilter implements OrderedFilter {
+
+    public static final String ENABLED_PROPERTY = "booker.shadow";
+
+    private static final Pattern BOOKING_PATH = Pattern.compile("/booking/(\\d+)/?");
+
+    /**
+     * @return Whether the shadow indexes are fed, true unless {@code booker.shadow} is false.
+     */
+    public static boolean enabled() {
+        return !"false".equalsIgnoreCase(System.getProperty(ENABLED_PROPERTY));
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec,
+                           FilterableResponseSpecification responseSpec,
+                           FilterContext ctx) {
+        Response response = ctx.next(requestSpec, responseSpec);
+
+        // A GET changes no booking, and its body, such as a streamed listing, is left unread
+        int status = response.getStatusCode();
+        if (!requestSpec.getMethod().equals("GET") && (status == HttpStatus.SC_OK || status == HttpStatus.SC_CREATED)) {
+            record(requestSpec.getMethod(), URI.create(requestSpec.getURI()), status, response.getContentType(),
+                response.asByteArray());
+        }
+        return response;
+    }
+
+    /**
+     * Applies a create, update, partial update or delete sent without REST-assured, such as one of
+     * {@link client.AsyncBookingClient}, to the index of the instance it was sent to.
+     *
+     * @param method      The request method.
+     * @param uri         The request URI, naming the instance.
+     * @param status      The response status code.
+     * @param contentType The response content type, or null.
+     * @param body        The response body.
+     */
+    public static void record(String method, URI uri, int status, String contentType, byte[] body) {
+        BookingShadowIndex index = BookingShadowIndex.shared(uri.getAuthority());
+        boolean json = contentType != null && contentType.contains("json");
+        try {
+            if (method.equals("POST") && uri.getPath().equals("/booking") && status == HttpStatus.SC_OK) {
+                if (json) {
+                    JsonNode created = MAPPER.readTree(body);
+                    JsonNode id = created.get("bookingid");
+                    if (id != null && id.canConvertToInt() && created.hasNonNull("booking")) {
+                        index.put(id.asInt(), BOOKING_READER.readValue(created.get("booking")));
+                    }
+                }
+                return;
+            }
+            Matcher booking = BOOKING_PATH.matcher(uri.getPath());
+            if (!booking.matches()) {
+                return;
+            }
+            int id = Integer.parseInt(booking.group(1));
+            if ((method.equals("PUT") || method.equals("PATCH")) && status == HttpStatus.SC_OK) {
+                if (json) {
+                    index.put(id, BOOKING_READER.readValue(body));
+                } else {
+                    index.remove(id);
+                }
+            } else if (method.equals("DELETE") && status == HttpStatus.SC_CREATED) {
+                index.remove(id);
+            }
+        } catch (IOException e) {
+            // Not a booking, the index is left as it was
+        }
+    }
+
+    /**
+     * Runs inside the load balancer, so the request URI names the instance actually called.
+     */
+    @Override
+    public int getOrder() {
+        return LOWEST_PRECEDENCE - 4;
+    }
+}
@@ -1,48 +1,307 @@
 package specs;
 
+import capture.CaptureFilter;
+import cleanup.BookingTrackingFilter;
+import cluster.BalancingStrategy;
+import cluster.BookerInstance;
+import cluster.LoadBalancer;
+import cluster.LoadBalancingFilter;
 import io.restassured.builder.RequestSpecBuilder;
 import io.restassured.builder.ResponseSpecBuilder;
+import helpers.JsonSupport;
+import io.restassured.config.HttpClientConfig;
+import io.restassured.config.LogConfig;
+import io.restassured.config.ObjectMapperConfig;
+import io.restassured.config.RestAssuredConfig;
+import io.restassured.filter.FilterContext;
+import io.restassured.filter.OrderedFilter;
+import io.restassured.filter.log.LogDetail;
 import io.restassured.filter.log.RequestLoggingFilter;
 import io.restassured.filter.log.ResponseLoggingFilter;
 import io.restassured.http.ContentType;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
 import io.restassured.specification.RequestSpecification;
 import io.restassured.specification.ResponseSpecification;
+import metrics.EndpointMetrics;
+import metrics.EndpointMetricsFilter;
 import org.apache.http.HttpStatus;
+import org.apache.http.client.params.ClientPNames;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.params.CoreConnectionPNames;
+import shadow.BookingShadowIndex;
+import shadow.ShadowIndexFilter;
+
+import java.io.PrintStream;
+import java.net.URI;
+import java.util.List;
 
 /**
  * This class provides methods to create RequestSpecification and ResponseSpecification objects
  * with predefined settings for REST API testing.
+ * <p>
+ * The specifications are built once when {@link #init(String, int)} is called and the same instances are handed
+ * out on every call afterwards. REST-assured merges a request specification into each new request, so a single
+ * instance is shared by all threads. Response specifications are modified by REST-assured while validating, so
+ * each thread gets its own instance. Calling {@code init} again rebuilds them.
+ * <p>
+ * Request and response bodies are mapped with the shared {@link JsonSupport#MAPPER} rather than a new
+ * ObjectMapper per request, which is what REST-assured does by default.
+ * <p>
+ * Every request goes through one Apache HttpClient with a pooled connection manager, so connections to booker are
+ * kept alive and reused instead of REST-assured opening a new client, and a new connection, per request. The pool
+ * and timeouts are set with {@link #setConnectionConfig(ConnectionConfig)} or the {@code booker.http.*} system
+ * properties (see {@link ConnectionConfig}). A connection only goes back to the pool once the response body has
+ * been read, so every response body is read before the response is handed to the caller, even when the caller only
+ * checks the status code. Requests built on {@link #streamingRequestSpec()} are the exception: the caller streams
+ * the body with {@code asInputStream()} and closes the stream, so large listings are never held in memory. The time
+ * spent waiting for a pooled connection is recorded in {@link ConnectionLeases}.
+ * <p>
+ * The latency, response size and status of every request are recorded per endpoint by an
+ * {@link EndpointMetricsFilter} and summarised when the JVM exits, see {@link EndpointMetrics}.
+ * <p>
+ * Bookings created and deleted are reported to the {@link cleanup.TrackedBookings} of the calling thread by a
+ * {@link BookingTrackingFilter}, so tests can delete the bookings they leave behind. A {@link ShadowIndexFilter} keeps
+ * a {@link BookingShadowIndex} of the bookings, to compute what filtered listings should return.
+ * <p>
+ * After {@link #initCluster(List, BalancingStrategy)} the requests are spread over several booker instances by a
+ * {@link LoadBalancer}.
+ * <p>
+ * When the {@code booker.capture.file} system property is set, every request and response is written to that file
+ * by a {@link CaptureFilter}, to be replayed later with {@link capture.TrafficReplayer}.
+ * <p>
+ * Logging is controlled by the system properties {@code booker.log} (see {@link LogMode}) and
+ * {@code booker.log.maxLength}, the maximum number of characters printed per request or response.
  */
 public class BaseSpec {
 
+    public static final String LOG_MAX_LENGTH_PROPERTY = "booker.log.maxLength";
+
+    // Marks the requests of streamingRequestSpec(), removed before the request is sent
+    private static final String STREAMED_BODY_HEADER = "X-Booker-Streamed-Body";
+
     private static String containerHostname;
     private static int containerPort;
 
-    public static void init(String host, int port) {
+    private static LogMode logMode = LogMode.fromSystemProperty();
+    private static int logMaxLength = Integer.getInteger(LOG_MAX_LENGTH_PROPERTY, 4096);
+
+    private static final EndpointMetricsFilter METRICS_FILTER = new EndpointMetricsFilter();
+    private static final BookingTrackingFilter TRACKING_FILTER = new BookingTrackingFilter();
+    private static final BodyReadingFilter BODY_READING_FILTER = new BodyReadingFilter();
+    private static final CaptureFilter CAPTURE_FILTER = CaptureFilter.fromSystemProperties();
+    private static final ShadowIndexFilter SHADOW_FILTER = new ShadowIndexFilter();
+
+    private static ConnectionConfig connectionConfig = ConnectionConfig.fromSystemProperties();
+    @SuppressWarnings("deprecation") // see httpClientConfig()
+    private static DefaultHttpClient httpClient;
+    private static LoadBalancer loadBalancer;
+
+    private static volatile RequestSpecification requestSpec;
+    private static volatile RequestSpecification requestSpecXml;
+    private static volatile RequestSpecification streamingRequestSpec;
+    private static volatile ThreadLocal<ResponseSpecification> responseSpec;
+    private static volatile ThreadLocal<ResponseSpecification> responseSpecXml;
+
+    public static synchronized void init(String host, int port) {
         containerHostname = host;
         containerPort = port;
+        loadBalancer = null;
+        build();
     }
 
-    private static RequestSpecBuilder commonRequestSpecBuilder() {
-        return new RequestSpecBuilder()
-            .setBaseUri("http://" + containerHostname)
-            .setPort(containerPort)
-            .addFilter(new RequestLoggingFilter())
-            .addFilter(new ResponseLoggingFilter());
+    /**
+     * Points the specifications at several booker instances, spreading the requests over them.
+     *
+     * @param instances The booker instances, the first one is returned by {@link #baseUri()}.
+     * @param strategy  How the instance of each request is picked.
+     */
+    public static synchronized void initCluster(List<BookerInstance> instances, BalancingStrategy strategy) {
+        containerHostname = instances.get(0).getHost();
+        containerPort = instances.get(0).getPort();
+        loadBalancer = new LoadBalancer(instances, strategy);
+        build();
     }
 
-    public static RequestSpecification requestSpec() {
-        return commonRequestSpecBuilder()
+    /**
+     * @return The load balancer when initialised with several instances, otherwise null.
+     */
+    public static synchronized LoadBalancer loadBalancer() {
+        return loadBalancer;
+    }
+
+    private static void build() {
+        requestSpec = commonRequestSpecBuilder(false)
             .setContentType(ContentType.JSON)
             .setAccept("application/json")
             .build();
-    }
-
-    public static RequestSpecification requestSpecXml() {
-        return commonRequestSpecBuilder()
+        streamingRequestSpec = commonRequestSpecBuilder(true)
+            .setContentType(ContentType.JSON)
+            .setAccept("application/json")
+            .addHeader(STREAMED_BODY_HEADER, "true")
+            .build();
+        requestSpecXml = commonRequestSpecBuilder(false)
             .setContentType("application/xml")
             .setAccept("application/xml")
             .build();
+        responseSpec = ThreadLocal.withInitial(() -> commonResponseSpecBuilder()
+            .expectContentType(ContentType.JSON)
+            .build());
+        responseSpecXml = ThreadLocal.withInitial(() -> commonResponseSpecBuilder()
+            .expectContentType(ContentType.XML)
+            .build());
+    }
+
+    /**
+     * Changes how requests and responses are logged, rebuilding the specifications if already initialised.
+     *
+     * @param mode      The logging mode.
+     * @param maxLength The maximum number of characters logged per request or response, 0 or less for no limit.
+     */
+    public static synchronized void setLogging(LogMode mode, int maxLength) {
+        logMode = mode;
+        logMaxLength = maxLength;
+        if (requestSpec != null) {
+            build();
+        }
+    }
+
+    /**
+     * Changes the connection pool and timeouts, rebuilding the specifications if already initialised.
+     * Connections opened with the previous configuration are closed, so call this before sending requests.
+     *
+     * @param config The connection configuration.
+     */
+    public static synchronized void setConnectionConfig(ConnectionConfig config) {
+        connectionConfig = config;
+        if (httpClient != null) {
+            httpClient.getConnectionManager().shutdown();
+            httpClient = null;
+        }
+        if (requestSpec != null) {
+            build();
+        }
+    }
+
+    /**
+     * REST-assured only supports the deprecated AbstractHttpClient API of HttpClient 4.
+     */
+    @SuppressWarnings("deprecation")
+    private static HttpClientConfig httpClientConfig() {
+        if (httpClient == null) {
+            PoolingClientConnectionManager connectionManager = new ConnectionLeases.TimingConnectionManager();
+            connectionManager.setMaxTotal(connectionConfig.getMaxTotal());
+            connectionManager.setDefaultMaxPerRoute(connectionConfig.getMaxPerRoute());
+
+            long keepAlive = connectionConfig.getKeepAlive().toMillis();
+            httpClient = new DefaultHttpClient(connectionManager);
+            httpClient.setKeepAliveStrategy((response, context) -> {
+                long requested = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                return requested < 0 ? keepAlive : Math.min(requested, keepAlive);
+            });
+        }
+
+        // The factory hands out the one pooled client, REST-assured creates the reused instance without locking
+        DefaultHttpClient client = httpClient;
+        return HttpClientConfig.httpClientConfig()
+            .httpClientFactory(() -> client)
+            .reuseHttpClientInstance()
+            .setParam(CoreConnectionPNames.CONNECTION_TIMEOUT, (int) connectionConfig.getConnectTimeout().toMillis())
+            .setParam(CoreConnectionPNames.SO_TIMEOUT, (int) connectionConfig.getSocketTimeout().toMillis())
+            .setParam(ClientPNames.CONN_MANAGER_TIMEOUT, connectionConfig.getConnectTimeout().toMillis());
+    }
+
+    /**
+     * @param streaming Whether the response bodies are streamed by the caller, in which case REST-assured must not
+     *                  buffer them to log failed validations.
+     */
+    private static RequestSpecBuilder commonRequestSpecBuilder(boolean streaming) {
+        RestAssuredConfig config = RestAssuredConfig.config()
+            .httpClient(httpClientConfig())
+            .objectMapperConfig(ObjectMapperConfig.objectMapperConfig()
+                .jackson2ObjectMapperFactory((type, charset) -> JsonSupport.MAPPER));
+        RequestSpecBuilder builder = new RequestSpecBuilder()
+            .setBaseUri("http://" + containerHostname)
+            .setPort(containerPort)
+            .addFilter(TRACKING_FILTER)
+            .addFilter(BODY_READING_FILTER);
+        if (loadBalancer != null) {
+            builder.addFilter(new LoadBalancingFilter(loadBalancer));
+        }
+        if (EndpointMetrics.enabled()) {
+            builder.addFilter(METRICS_FILTER);
+        }
+        if (ShadowIndexFilter.enabled()) {
+            builder.addFilter(SHADOW_FILTER);
+        }
+        if (CAPTURE_FILTER != null) {
+            builder.addFilter(CAPTURE_FILTER);
+        }
+
+        PrintStream logStream = new TruncatingPrintStream(System.out, logMaxLength);
+        switch (logMode) {
+            case ALWAYS -> builder
+                .addFilter(new RequestLoggingFilter(LogDetail.ALL, logStream))
+                .addFilter(new ResponseLoggingFilter(LogDetail.ALL, logStream));
+            case HEADERS -> builder
+                .addFilter(new RequestLoggingFilter(LogDetail.HEADERS, logStream))
+                .addFilter(new ResponseLoggingFilter(LogDetail.HEADERS, logStream));
+            case ON_FAILURE -> {
+                if (!streaming) {
+                    config = config.logConfig(LogConfig.logConfig()
+                        .defaultStream(logStream)
+                        .enablePrettyPrinting(false)
+                        .enableLoggingOfRequestAndResponseIfValidationFails(LogDetail.ALL));
+                }
+            }
+            case OFF -> {
+                // no logging filters
+            }
+        }
+        return builder.setConfig(config);
+    }
+
+    /**
+     * @return The base URI of the booker instance the specifications point at, e.g. "http://localhost:32768", the
+     * first instance when there are several.
+     */
+    public static synchronized URI baseUri() {
+        initialised(requestSpec);
+        return URI.create("http://" + containerHostname + ":" + containerPort);
+    }
+
+    public static synchronized ConnectionConfig connectionConfig() {
+        return connectionConfig;
+    }
+
+    /**
+     * @return The filter capturing traffic to the {@code booker.capture.file} journal, or null if not capturing.
+     */
+    public static CaptureFilter captureFilter() {
+        return CAPTURE_FILTER;
+    }
+
+    public static RequestSpecification requestSpec() {
+        return initialised(requestSpec);
+    }
+
+    public static RequestSpecification requestSpecXml() {
+        return initialised(requestSpecXml);
+    }
+
+    /**
+     * A JSON request specification for responses too large to buffer, such as full booking ID listings. The body is
+     * left unread until the caller streams it with {@code asInputStream()}, and the caller must close that stream to
+     * release the pooled connection. REST-assured buffers the body of any response validated with {@code then()}, so
+     * the caller checks the status itself.
+     *
+     * @return The streaming request specification.
+     */
+    public static RequestSpecification streamingRequestSpec() {
+        return initialised(streamingRequestSpec);
     }
 
     private static ResponseSpecBuilder commonResponseSpecBuilder() {
@@ -51,14 +310,50 @@ public class BaseSpec {
     }
 
     public static ResponseSpecification responseSpec() {
-        return commonResponseSpecBuilder()
-            .expectContentType(ContentType.JSON)
-            .build();
+        return initialised(responseSpec).get();
     }
 
     public static ResponseSpecification responseSpecXml() {
-        return commonResponseSpecBuilder()
-            .expectContentType(ContentType.XML)
-            .build();
+        return initialised(responseSpecXml).get();
+    }
+
+    private static <T> T initialised(T spec) {
+        if (spec == null) {
+            throw new IllegalStateException("BaseSpec.init(host, port) must be called before requesting a specification");
+        }
+        return spec;
+    }
+
+    /**
+     * @param requestSpec The request.
+     * @return Whether the caller streams the response body itself, see {@link #streamingRequestSpec()}.
+     */
+    public static boolean streamsBody(FilterableRequestSpecification requestSpec) {
+        return requestSpec.getHeaders().hasHeaderWithName(STREAMED_BODY_HEADER);
+    }
+
+    /**
+     * Reads the response body, releasing the pooled connection, unless the caller streams it. Runs last, next to the
+     * wire, so the metrics filter times the body download too.
+     */
+    private static final class BodyReadingFilter implements OrderedFilter {
+
+        @Override
+        public Response filter(FilterableRequestSpecification requestSpec,
+                               FilterableResponseSpecification responseSpec,
+                               FilterContext ctx) {
+            if (streamsBody(requestSpec)) {
+                requestSpec.removeHeader(STREAMED_BODY_HEADER);
+                return ctx.next(requestSpec, responseSpec);
+            }
+            Response response = ctx.next(requestSpec, responseSpec);
+            response.asByteArray();
+            return response;
+        }
+
+        @Override
+        public int getOrder() {
+            return LOWEST_PRECEDENCE;
+        }
     }
-}
\ No newline at end of file
+}
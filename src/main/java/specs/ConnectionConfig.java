@@ -0,0 +1,58 @@
+package specs;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Describes how the HTTP client used by {@link BaseSpec} manages its connections to booker.
+ * <p>
+ * {@link #fromSystemProperties()} reads the configuration from the following system properties:
+ * <ul>
+ *     <li>{@code booker.http.maxTotal} - maximum number of pooled connections (64, or {@code booker.load.users} if
+ *         higher)</li>
+ *     <li>{@code booker.http.maxPerRoute} - maximum number of pooled connections to one host and port (64, or
+ *         {@code booker.load.users} if higher)</li>
+ *     <li>{@code booker.http.keepAlive} - how long an idle connection is kept for reuse in milliseconds, unless the
+ *         server asks for less with a Keep-Alive header (30000)</li>
+ *     <li>{@code booker.http.connectTimeout} - time allowed to open a connection, or to lease one from the pool when
+ *         all are in use, in milliseconds (10000)</li>
+ *     <li>{@code booker.http.socketTimeout} - maximum time without data while waiting for a response in milliseconds
+ *         (30000)</li>
+ * </ul>
+ */
+@Getter
+@Builder
+public class ConnectionConfig {
+
+    @Builder.Default
+    private final int maxTotal = 64;
+
+    @Builder.Default
+    private final int maxPerRoute = 64;
+
+    @Builder.Default
+    private final Duration keepAlive = Duration.ofSeconds(30);
+
+    @Builder.Default
+    private final Duration connectTimeout = Duration.ofSeconds(10);
+
+    @Builder.Default
+    private final Duration socketTimeout = Duration.ofSeconds(30);
+
+    /**
+     * @return A configuration built from the {@code booker.http.*} system properties.
+     */
+    public static ConnectionConfig fromSystemProperties() {
+        // A blocking simulated user holds one connection at a time, so load runs don't queue for the pool
+        int poolSize = Math.max(64, Integer.getInteger("booker.load.users", 0));
+        return ConnectionConfig.builder()
+            .maxTotal(Integer.getInteger("booker.http.maxTotal", poolSize))
+            .maxPerRoute(Integer.getInteger("booker.http.maxPerRoute", poolSize))
+            .keepAlive(Duration.ofMillis(Long.getLong("booker.http.keepAlive", 30_000)))
+            .connectTimeout(Duration.ofMillis(Long.getLong("booker.http.connectTimeout", 10_000)))
+            .socketTimeout(Duration.ofMillis(Long.getLong("booker.http.socketTimeout", 30_000)))
+            .build();
+    }
+}
@@ -0,0 +1,80 @@
+package specs;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.apache.http.conn.ClientConnectionRequest;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ManagedClientConnection;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How long the requests sent through {@link BaseSpec} waited to lease a connection from its pool.
+ * <p>
+ * When more threads send requests than the pool has connections ({@code booker.http.maxTotal}), the others queue for
+ * a connection before their request is sent. That wait is recorded here, per thread and JVM-wide, so latencies can
+ * be reported without it and queueing on the client does not show up as booker being slow.
+ */
+public final class ConnectionLeases {
+
+    private static final long MAX_WAIT_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private static final ConcurrentHistogram WAITS = new ConcurrentHistogram(MAX_WAIT_MICROS, 3);
+    private static final ThreadLocal<long[]> WAITED_BY_THREAD = ThreadLocal.withInitial(() -> new long[1]);
+
+    private ConnectionLeases() {
+    }
+
+    /**
+     * @return The total time the calling thread has waited for pooled connections, in nanoseconds. The difference
+     * between two calls is the wait of the requests the thread sent in between.
+     */
+    public static long waitedNanos() {
+        return WAITED_BY_THREAD.get()[0];
+    }
+
+    /**
+     * @return A copy of the lease waits recorded so far, in microseconds.
+     */
+    public static Histogram waits() {
+        return WAITS.copy();
+    }
+
+    private static void record(long waitNanos) {
+        WAITED_BY_THREAD.get()[0] += waitNanos;
+        WAITS.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(waitNanos), MAX_WAIT_MICROS));
+    }
+
+    /**
+     * Pooling connection manager timing how long each lease waits. REST-assured only supports the deprecated
+     * connection manager API of HttpClient 4.
+     */
+    @SuppressWarnings("deprecation")
+    static final class TimingConnectionManager extends PoolingClientConnectionManager {
+
+        @Override
+        public ClientConnectionRequest requestConnection(HttpRoute route, Object state) {
+            ClientConnectionRequest request = super.requestConnection(route, state);
+            return new ClientConnectionRequest() {
+
+                @Override
+                public ManagedClientConnection getConnection(long timeout, TimeUnit unit)
+                    throws InterruptedException, ConnectionPoolTimeoutException {
+                    long start = System.nanoTime();
+                    try {
+                        return request.getConnection(timeout, unit);
+                    } finally {
+                        record(System.nanoTime() - start);
+                    }
+                }
+
+                @Override
+                public void abortRequest() {
+                    request.abortRequest();
+                }
+            };
+        }
+    }
+}
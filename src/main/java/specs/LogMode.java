@@ -0,0 +1,43 @@
+package specs;
+
+import java.util.Locale;
+
+/**
+ * Controls how much of each request and response is logged by the specifications built in {@link BaseSpec}.
+ * <p>
+ * Selected with the system property {@code booker.log}, e.g. {@code -Dbooker.log=always}.
+ */
+public enum LogMode {
+
+    /** Nothing is logged. */
+    OFF,
+
+    /** Request and response are only written out when a response validation fails. */
+    ON_FAILURE,
+
+    /** Every request and response is logged in full. */
+    ALWAYS,
+
+    /** Only the headers of every request and response are logged. */
+    HEADERS;
+
+    public static final String PROPERTY = "booker.log";
+
+    /**
+     * Reads the mode from the {@code booker.log} system property, accepting names such as "on-failure" or "ALWAYS".
+     *
+     * @return The configured mode, or {@link #ON_FAILURE} when the property is not set.
+     */
+    public static LogMode fromSystemProperty() {
+        String value = System.getProperty(PROPERTY);
+        if (value == null || value.isBlank()) {
+            return ON_FAILURE;
+        }
+        try {
+            return valueOf(value.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown " + PROPERTY + " value '" + value
+                + "', expected one of off, on-failure, always, headers", e);
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package specs;
+
+import io.restassured.builder.ResponseSpecBuilder;
+import io.restassured.specification.ResponseSpecification;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.hamcrest.Matchers.lessThan;
+
+/**
+ * Response time budgets per endpoint, read from a properties file.
+ * <p>
+ * Each entry is the method and path template of an endpoint, separated by a dot, followed by the statistic and the
+ * budget in milliseconds:
+ * <pre>
+ * GET./booking/{id}.max=500
+ * GET./booking/{id}.p95=50
+ * </pre>
+ * A {@code max} budget applies to every single response, see {@link #withinBudget(String)}. Percentile budgets
+ * ({@code p50}, {@code p95}, {@code p99.9}, ...) apply to all the requests a test class sends to the endpoint, see
+ * {@link #check(String, Histogram)}, once the class has sent at least {@code booker.budgets.minSamples} requests to
+ * it (20), so that a handful of slow first requests while the JVM warms up do not make up the percentile.
+ * <p>
+ * The file is named by the system property {@code booker.budgets}, as a classpath resource or a file path, and
+ * defaults to performance-budgets.properties on the classpath. Breached budgets only fail the tests when
+ * {@code booker.budgets.enforce} is true, otherwise they are reported.
+ */
+public final class PerformanceBudgets {
+
+    public static final String FILE_PROPERTY = "booker.budgets";
+    public static final String ENFORCE_PROPERTY = "booker.budgets.enforce";
+    public static final String MIN_SAMPLES_PROPERTY = "booker.budgets.minSamples";
+    public static final String DEFAULT_FILE = "performance-budgets.properties";
+
+    private static final String MAX = "max";
+    private static final Pattern ENTRY = Pattern.compile("([A-Z]+)\\.(/.*)\\.(max|p\\d+(?:\\.\\d+)?)");
+
+    private final Map<String, Long> maxMillis;
+    private final Map<String, Map<Double, Long>> percentileMillis;
+    private final boolean enforced;
+    private final int minSamples = Integer.getInteger(MIN_SAMPLES_PROPERTY, 20);
+
+    private PerformanceBudgets(Map<String, Long> maxMillis, Map<String, Map<Double, Long>> percentileMillis,
+                               boolean enforced) {
+        this.maxMillis = maxMillis;
+        this.percentileMillis = percentileMillis;
+        this.enforced = enforced;
+    }
+
+    /**
+     * @return The budgets configured by the {@code booker.budgets} system properties, loaded once.
+     */
+    public static PerformanceBudgets current() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Shorthand for {@code current().responseTimeSpec(endpoint)}.
+     *
+     * @param endpoint The method and path template, e.g. "GET /booking/{id}".
+     * @return A response specification expecting the response within the endpoint's max budget.
+     */
+    public static ResponseSpecification withinBudget(String endpoint) {
+        return current().responseTimeSpec(endpoint);
+    }
+
+    /**
+     * Loads budgets from a classpath resource or, if there is no such resource, a file.
+     *
+     * @param location The resource name or file path.
+     * @param enforced Whether breached budgets fail the tests.
+     * @return The budgets.
+     * @throws IllegalArgumentException If the file does not exist or an entry is invalid.
+     */
+    public static PerformanceBudgets load(String location, boolean enforced) {
+        Properties properties = new Properties();
+        try (InputStream in = open(location)) {
+            if (in == null) {
+                throw new IllegalArgumentException("Performance budgets file not found: " + location);
+            }
+            properties.load(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read performance budgets from " + location, e);
+        }
+        return parse(properties, enforced);
+    }
+
+    /**
+     * @param properties Entries such as {@code GET./booking/{id}.p95=50}.
+     * @param enforced   Whether breached budgets fail the tests.
+     * @return The budgets.
+     * @throws IllegalArgumentException If an entry is invalid.
+     */
+    public static PerformanceBudgets parse(Properties properties, boolean enforced) {
+        Map<String, Long> maxMillis = new HashMap<>();
+        Map<String, Map<Double, Long>> percentileMillis = new HashMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            Matcher entry = ENTRY.matcher(key);
+            if (!entry.matches()) {
+                throw new IllegalArgumentException("Invalid performance budget '" + key
+                    + "', expected <method>.<path>.<max|pNN>, e.g. GET./booking/{id}.p95");
+            }
+            String endpoint = entry.group(1) + " " + entry.group(2);
+            String stat = entry.group(3);
+            long millis = Long.parseLong(properties.getProperty(key).trim());
+
+            if (stat.equals(MAX)) {
+                maxMillis.put(endpoint, millis);
+            } else {
+                double percentile = Double.parseDouble(stat.substring(1));
+                if (percentile <= 0 || percentile > 100) {
+                    throw new IllegalArgumentException("Invalid percentile in performance budget '" + key + "'");
+                }
+                percentileMillis.computeIfAbsent(endpoint, e -> new TreeMap<>()).put(percentile, millis);
+            }
+        }
+        return new PerformanceBudgets(maxMillis, percentileMillis, enforced);
+    }
+
+    public boolean isEnforced() {
+        return enforced;
+    }
+
+    /**
+     * @param endpoint The method and path template, e.g. "GET /booking/{id}".
+     * @return The percentile budgets of the endpoint in milliseconds, keyed by percentile.
+     */
+    public Map<Double, Long> percentileBudgets(String endpoint) {
+        return Collections.unmodifiableMap(percentileMillis.getOrDefault(endpoint, Map.of()));
+    }
+
+    /**
+     * Builds a response specification that fails when a single response takes longer than the endpoint's max
+     * budget. The specification expects nothing if the endpoint has no max budget or budgets are not enforced.
+     * A new instance is returned on every call, as REST-assured modifies response specifications when validating.
+     *
+     * @param endpoint The method and path template, e.g. "GET /booking/{id}".
+     * @return The response specification, to combine with {@link BaseSpec#responseSpec()}.
+     */
+    public ResponseSpecification responseTimeSpec(String endpoint) {
+        ResponseSpecBuilder builder = new ResponseSpecBuilder();
+        Long max = maxMillis.get(endpoint);
+        if (enforced && max != null) {
+            builder.expectResponseTime(lessThan(max), TimeUnit.MILLISECONDS);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Compares the latencies recorded for an endpoint with its percentile and max budgets. Percentiles are only
+     * compared when at least {@code booker.budgets.minSamples} latencies were recorded.
+     *
+     * @param endpoint  The method and path template, e.g. "GET /booking/{id}".
+     * @param latencies The latencies recorded for the endpoint, in microseconds.
+     * @return A description of each breached budget, empty if all are met.
+     */
+    public List<String> check(String endpoint, Histogram latencies) {
+        List<String> breaches = new ArrayList<>();
+        if (latencies.getTotalCount() == 0) {
+            return breaches;
+        }
+        Map<Double, Long> percentiles = latencies.getTotalCount() >= minSamples ? percentileBudgets(endpoint) : Map.of();
+        percentiles.forEach((percentile, budget) -> {
+            double actual = latencies.getValueAtPercentile(percentile) / 1000.0;
+            if (actual > budget) {
+                breaches.add(String.format("%s p%s %.2f ms exceeds budget of %d ms over %d requests",
+                    endpoint, format(percentile), actual, budget, latencies.getTotalCount()));
+            }
+        });
+        Long max = maxMillis.get(endpoint);
+        if (max != null && latencies.getMaxValue() / 1000.0 > max) {
+            breaches.add(String.format("%s max %.2f ms exceeds budget of %d ms",
+                endpoint, latencies.getMaxValue() / 1000.0, max));
+        }
+        return breaches;
+    }
+
+    private static String format(double percentile) {
+        return percentile == Math.rint(percentile) ? Long.toString((long) percentile) : Double.toString(percentile);
+    }
+
+    private static InputStream open(String location) throws IOException {
+        InputStream resource = PerformanceBudgets.class.getClassLoader().getResourceAsStream(location);
+        if (resource != null) {
+            return resource;
+        }
+        Path file = Path.of(location);
+        return Files.exists(file) ? Files.newInputStream(file) : null;
+    }
+
+    private static final class Holder {
+        private static final PerformanceBudgets INSTANCE = fromSystemProperties();
+
+        private static PerformanceBudgets fromSystemProperties() {
+            boolean enforced = Boolean.getBoolean(ENFORCE_PROPERTY);
+            String location = System.getProperty(FILE_PROPERTY);
+            if (location != null) {
+                return load(location, enforced);
+            }
+            if (PerformanceBudgets.class.getClassLoader().getResource(DEFAULT_FILE) == null) {
+                return new PerformanceBudgets(Map.of(), Map.of(), enforced);
+            }
+            return load(DEFAULT_FILE, enforced);
+        }
+    }
+}
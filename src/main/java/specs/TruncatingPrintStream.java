@@ -0,0 +1,42 @@
+package specs;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * A PrintStream that cuts every logged message down to a maximum number of characters.
+ * <p>
+ * The REST-assured logging filters format a whole request or response into a single string before printing it,
+ * so capping each message keeps large booking listings from flooding the console. The println variants of a
+ * PrintStream subclass go through {@link #print(String)}, so they are truncated too.
+ */
+public class TruncatingPrintStream extends PrintStream {
+
+    private final int maxLength;
+
+    /**
+     * @param out       The stream to write to.
+     * @param maxLength The maximum number of characters printed per message, 0 or less for no limit.
+     */
+    public TruncatingPrintStream(OutputStream out, int maxLength) {
+        super(out, true);
+        this.maxLength = maxLength;
+    }
+
+    @Override
+    public void print(String s) {
+        super.print(truncate(s));
+    }
+
+    @Override
+    public void print(Object obj) {
+        print(String.valueOf(obj));
+    }
+
+    private String truncate(String s) {
+        if (maxLength <= 0 || s == null || s.length() <= maxLength) {
+            return s;
+        }
+        return s.substring(0, maxLength) + "... [" + (s.length() - maxLength) + " more characters truncated]";
+    }
+}
@@ -1,36 +1,45 @@
 package base;
 
+import emulator.BookerEmulator;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.testcontainers.containers.GenericContainer;
-import org.testcontainers.junit.jupiter.Container;
-import org.testcontainers.junit.jupiter.Testcontainers;
-import org.testcontainers.utility.DockerImageName;
-import specs.BaseSpec;
 
-@Testcontainers
+@ExtendWith({PerformanceBudgetExtension.class, BookingCleanupExtension.class})
 public class BaseTest {
 
     public static final int INVALID_BOOKING_ID = 999999;
 
-    // Docker container configuration
-    protected static final DockerImageName BOOKER_IMAGE = DockerImageName.parse("mwinteringham/restfulbooker:latest");
-    protected static final int BOOKER_EXPOSED_PORT = 3001;
-
-    @Container
-    protected static final GenericContainer<?> bookerContainer = new GenericContainer<>(BOOKER_IMAGE)
-        .withExposedPorts(BOOKER_EXPOSED_PORT);
+    // Only used when per-class isolation is requested with -Dbooker.isolated=true
+    private static GenericContainer<?> isolatedContainer;
+    private static BookerEmulator isolatedEmulator;
 
     @BeforeAll
     static void setup() {
-        BaseSpec.init(bookerContainer.getHost(),
-            bookerContainer.getFirstMappedPort());
+        if (BookerContainer.ISOLATED && BookerContainer.EMBEDDED) {
+            isolatedEmulator = BookerContainer.startEmulator();
+            BookerContainer.initSpec(isolatedEmulator);
+        } else if (BookerContainer.ISOLATED) {
+            isolatedContainer = BookerContainer.create();
+            BookerContainer.start(isolatedContainer);
+            BookerContainer.initSpec(isolatedContainer);
+        } else if (BookerContainer.EMBEDDED) {
+            BookerContainer.sharedEmulators();
+        } else {
+            BookerContainer.shared();
+        }
     }
 
     @AfterAll
     public static void tearDown() {
-        if (bookerContainer != null) {
-            bookerContainer.close();
+        if (isolatedContainer != null) {
+            isolatedContainer.close();
+            isolatedContainer = null;
+        }
+        if (isolatedEmulator != null) {
+            isolatedEmulator.close();
+            isolatedEmulator = null;
         }
     }
 
@@ -0,0 +1,234 @@
+package base;
+
+import cluster.BalancingStrategy;
+import cluster.BookerInstance;
+import cluster.LoadBalancer;
+import emulator.BookerEmulator;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.utility.DockerImageName;
+import specs.BaseSpec;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+/**
+ * Manages the lifecycle of the restful-booker container used by the test suite.
+ * <p>
+ * By default a single container is started lazily on first use, shared by every test class in the JVM and
+ * stopped when the JVM exits. Setting the system property {@code booker.isolated=true} restores the previous
+ * behaviour where each test class starts and stops its own container. As {@link BaseSpec} holds a single host and
+ * port, isolated mode must be combined with {@code -Djunit.parallel.enabled=false}.
+ * <p>
+ * A container only counts as started once {@code GET /ping} answers 201, so the first tests never race the Node app
+ * booting. With {@code booker.container.reuse=true} (and {@code testcontainers.reuse.enable=true} in
+ * ~/.testcontainers.properties) the shared container is left running when the JVM exits and picked up again by the
+ * next run. The image can be pinned to a tag or digest with {@code booker.container.image}.
+ * <p>
+ * With {@code booker.instances} greater than 1, that many shared containers are started side by side and
+ * {@link BaseSpec} balances the requests over them with the strategy set by {@code booker.balancing} (see
+ * {@link BalancingStrategy}). The requests served by each instance are printed when the JVM exits. Isolated mode
+ * always uses a single container.
+ * <p>
+ * With {@code booker.target=embedded} no container is started: the tests run against in-process
+ * {@link BookerEmulator} instances instead, which start in milliseconds and need no Docker. Instances, balancing and
+ * isolated mode work the same way.
+ */
+public final class BookerContainer {
+
+    // Docker container configuration
+    public static final DockerImageName BOOKER_IMAGE = DockerImageName.parse(
+        System.getProperty("booker.container.image", "mwinteringham/restfulbooker:latest"));
+    public static final int BOOKER_EXPOSED_PORT = 3001;
+    public static final Duration BOOKER_STARTUP_TIMEOUT = Duration.ofSeconds(60);
+
+    /**
+     * When true, the shared container is kept running after the JVM exits, to be reused by the next run.
+     */
+    public static final boolean REUSE = Boolean.getBoolean("booker.container.reuse");
+
+    /**
+     * When true, each test class gets its own container instead of the shared one.
+     */
+    public static final boolean ISOLATED = Boolean.getBoolean("booker.isolated");
+
+    /**
+     * The number of shared containers to balance the requests over.
+     */
+    public static final int INSTANCES = Integer.getInteger("booker.instances", 1);
+
+    /**
+     * When true, the tests run against in-process emulators instead of containers.
+     */
+    public static final boolean EMBEDDED = "embedded".equalsIgnoreCase(System.getProperty("booker.target", "docker"));
+
+    private static volatile Duration startupTime;
+
+    private BookerContainer() {
+    }
+
+    /**
+     * Creates a new, unstarted restful-booker container.
+     *
+     * @return A container configured with the booker image and exposed port, waiting for /ping when started.
+     */
+    public static GenericContainer<?> create() {
+        return new GenericContainer<>(BOOKER_IMAGE)
+            .withExposedPorts(BOOKER_EXPOSED_PORT)
+            .waitingFor(Wait.forHttp("/ping")
+                .forStatusCode(201)
+                .withStartupTimeout(BOOKER_STARTUP_TIMEOUT));
+    }
+
+    /**
+     * Starts the container, recording and printing how long it took until booker answered /ping.
+     *
+     * @param container The container to start.
+     */
+    public static void start(GenericContainer<?> container) {
+        long begin = System.nanoTime();
+        container.start();
+        startupTime = Duration.ofNanos(System.nanoTime() - begin);
+        System.out.printf("Started %s in %d ms%s%n", container.getDockerImageName(), startupTime.toMillis(),
+            container.isShouldBeReused() ? " (reusable)" : "");
+    }
+
+    /**
+     * @return The time taken by the last container start, including the image pull if needed, or null.
+     */
+    public static Duration startupTime() {
+        return startupTime;
+    }
+
+    /**
+     * Returns the JVM-wide container, starting it and initialising {@link BaseSpec} on first call.
+     *
+     * @return The shared, running container, the first one when there are several.
+     */
+    public static GenericContainer<?> shared() {
+        return Holder.CONTAINERS.get(0);
+    }
+
+    /**
+     * @return All the shared, running containers, starting them on first call.
+     */
+    public static List<GenericContainer<?>> sharedInstances() {
+        return Holder.CONTAINERS;
+    }
+
+    /**
+     * Returns the JVM-wide emulators, starting them and initialising {@link BaseSpec} on first call.
+     *
+     * @return The shared, running emulators.
+     */
+    public static List<BookerEmulator> sharedEmulators() {
+        return EmulatorHolder.EMULATORS;
+    }
+
+    /**
+     * Starts an emulator, printing how long it took.
+     *
+     * @return The running emulator, to be closed by the caller.
+     */
+    public static BookerEmulator startEmulator() {
+        long begin = System.nanoTime();
+        BookerEmulator emulator = new BookerEmulator().start();
+        startupTime = Duration.ofNanos(System.nanoTime() - begin);
+        System.out.printf("Started booker emulator on port %d in %d ms%n", emulator.getPort(), startupTime.toMillis());
+        return emulator;
+    }
+
+    /**
+     * Points {@link BaseSpec} at the given running container.
+     *
+     * @param container The running container.
+     */
+    static void initSpec(GenericContainer<?> container) {
+        BaseSpec.init(container.getHost(), container.getMappedPort(BOOKER_EXPOSED_PORT));
+    }
+
+    /**
+     * Points {@link BaseSpec} at the given running emulator.
+     *
+     * @param emulator The running emulator.
+     */
+    static void initSpec(BookerEmulator emulator) {
+        BaseSpec.init(emulator.getHost(), emulator.getPort());
+    }
+
+    /**
+     * Points {@link BaseSpec} at the shared instances, balancing the requests when there are several.
+     */
+    private static void initSpec(List<BookerInstance> instances) {
+        if (instances.size() == 1) {
+            BaseSpec.init(instances.get(0).getHost(), instances.get(0).getPort());
+        } else {
+            BaseSpec.initCluster(instances, BalancingStrategy.fromSystemProperty());
+            LoadBalancer loadBalancer = BaseSpec.loadBalancer();
+            Runtime.getRuntime().addShutdownHook(
+                new Thread(() -> loadBalancer.print(System.out), "booker-instances-report"));
+        }
+    }
+
+    private static void checkInstances() {
+        if (INSTANCES < 1) {
+            throw new IllegalArgumentException("booker.instances must be at least 1");
+        }
+    }
+
+    /**
+     * Lazy holder, the JVM guarantees the container is started exactly once even when test classes run concurrently.
+     */
+    private static final class Holder {
+        private static final List<GenericContainer<?>> CONTAINERS = startShared();
+
+        private static List<GenericContainer<?>> startShared() {
+            checkInstances();
+            // Containers start concurrently, so N instances take about as long as one
+            List<GenericContainer<?>> containers = IntStream.range(0, INSTANCES)
+                .mapToObj(i -> CompletableFuture.supplyAsync(Holder::startOne))
+                .toList()
+                .stream()
+                .map(CompletableFuture::join)
+                .toList();
+
+            initSpec(IntStream.range(0, containers.size())
+                .mapToObj(i -> new BookerInstance(i, containers.get(i).getHost(),
+                    containers.get(i).getMappedPort(BOOKER_EXPOSED_PORT)))
+                .toList());
+            return containers;
+        }
+
+        private static GenericContainer<?> startOne() {
+            GenericContainer<?> container = create().withReuse(REUSE);
+            start(container);
+            if (!REUSE) {
+                Runtime.getRuntime().addShutdownHook(new Thread(container::stop, "booker-container-shutdown"));
+            }
+            return container;
+        }
+    }
+
+    /**
+     * Lazy holder for the emulators, started in place of the containers with {@code booker.target=embedded}.
+     */
+    private static final class EmulatorHolder {
+        private static final List<BookerEmulator> EMULATORS = startShared();
+
+        private static List<BookerEmulator> startShared() {
+            checkInstances();
+            List<BookerEmulator> emulators = IntStream.range(0, INSTANCES)
+                .mapToObj(i -> startEmulator())
+                .toList();
+            emulators.forEach(emulator -> Runtime.getRuntime().addShutdownHook(
+                new Thread(emulator::close, "booker-emulator-shutdown")));
+
+            initSpec(IntStream.range(0, emulators.size())
+                .mapToObj(i -> new BookerInstance(i, emulators.get(i).getHost(), emulators.get(i).getPort()))
+                .toList());
+            return emulators;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package base;
+
+import cleanup.TrackedBookings;
+import cluster.BalancingStrategy;
+import cluster.LoadBalancer;
+import helpers.BookingHelper;
+import org.junit.jupiter.api.extension.AfterAllCallback;
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import specs.BaseSpec;
+
+import java.util.Locale;
+
+/**
+ * Deletes the bookings each test creates, so the shared booker instance does not keep growing over a run.
+ * <p>
+ * Bookings created from a test method's thread, or by {@link BookingHelper#createBookings} called from it, are
+ * tracked in a {@link TrackedBookings} per test. The system property {@code booker.cleanup} sets when they are
+ * deleted:
+ * <ul>
+ *     <li>{@code class} - (default) once all the tests of the class have run</li>
+ *     <li>{@code test}  - after each test</li>
+ *     <li>{@code off}   - never, bookings are not tracked</li>
+ * </ul>
+ * Deletes are sent concurrently, {@code booker.cleanup.parallelism} at a time (8), with one cached token. Nothing
+ * is tracked in isolated mode, as each class's container is thrown away with its bookings.
+ * <p>
+ * When requests are balanced over several booker instances, each booking only exists on the instance that created
+ * it. With the sticky strategy bookings are then deleted after each test, from the test's own thread, so the deletes
+ * reach the instance the test used. With the other strategies bookings are not tracked.
+ */
+public class BookingCleanupExtension implements BeforeAllCallback, BeforeEachCallback, AfterEachCallback,
+    AfterAllCallback {
+
+    public enum Mode { CLASS, TEST, OFF }
+
+    public static final Mode MODE = Mode.valueOf(System.getProperty("booker.cleanup", "class").toUpperCase(Locale.ROOT));
+
+    private static final boolean ENABLED = MODE != Mode.OFF && !BookerContainer.ISOLATED;
+
+    private static final int PARALLELISM = Integer.getInteger("booker.cleanup.parallelism", 8);
+
+    private static final ExtensionContext.Namespace NAMESPACE =
+        ExtensionContext.Namespace.create(BookingCleanupExtension.class);
+
+    @Override
+    public void beforeAll(ExtensionContext context) {
+        if (ENABLED) {
+            context.getStore(NAMESPACE).put(Scope.CLASS, new TrackedBookings());
+        }
+    }
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        if (ENABLED && mode() != Mode.OFF) {
+            TrackedBookings tracked = new TrackedBookings();
+            context.getStore(NAMESPACE).put(Scope.TEST, tracked);
+            tracked.enter();
+        }
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        TrackedBookings.exit();
+        TrackedBookings tracked = context.getStore(NAMESPACE).remove(Scope.TEST, TrackedBookings.class);
+        if (tracked == null) {
+            return;
+        }
+        TrackedBookings classBookings = context.getStore(NAMESPACE).get(Scope.CLASS, TrackedBookings.class);
+        if (mode() == Mode.TEST || classBookings == null) {
+            delete(tracked, context.getDisplayName());
+        } else {
+            tracked.moveTo(classBookings);
+        }
+    }
+
+    @Override
+    public void afterAll(ExtensionContext context) {
+        TrackedBookings tracked = context.getStore(NAMESPACE).remove(Scope.CLASS, TrackedBookings.class);
+        if (tracked != null) {
+            delete(tracked, context.getDisplayName());
+        }
+    }
+
+    /**
+     * @return The cleanup mode, taking into account how requests are spread when there are several instances.
+     */
+    private static Mode mode() {
+        LoadBalancer loadBalancer = BaseSpec.loadBalancer();
+        if (loadBalancer == null) {
+            return MODE;
+        }
+        return loadBalancer.getStrategy() == BalancingStrategy.STICKY ? Mode.TEST : Mode.OFF;
+    }
+
+    private static void delete(TrackedBookings tracked, String owner) {
+        int[] ids = tracked.drain();
+        if (ids.length == 0) {
+            return;
+        }
+        try {
+            BookingHelper.deleteBookings(ids, PARALLELISM);
+        } catch (RuntimeException e) {
+            // Leftover bookings must not fail the tests that created them
+            System.out.println("Unable to clean up the " + ids.length + " bookings created by " + owner + ": " + e);
+        }
+    }
+
+    private enum Scope { CLASS, TEST }
+}
@@ -0,0 +1,65 @@
+package base;
+
+import metrics.MetricsScope;
+import org.junit.jupiter.api.extension.AfterAllCallback;
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import specs.PerformanceBudgets;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks the latency percentiles of the requests sent by each test class against the {@link PerformanceBudgets}.
+ * <p>
+ * Requests sent from a test method's thread are recorded into a {@link MetricsScope} per test class. Once all the
+ * tests of the class have run, the budgets of every endpoint the class called are checked: breaches fail the class
+ * when budgets are enforced and are printed otherwise.
+ */
+public class PerformanceBudgetExtension implements BeforeAllCallback, BeforeEachCallback, AfterEachCallback,
+    AfterAllCallback {
+
+    private static final ExtensionContext.Namespace NAMESPACE =
+        ExtensionContext.Namespace.create(PerformanceBudgetExtension.class);
+
+    @Override
+    public void beforeAll(ExtensionContext context) {
+        context.getStore(NAMESPACE).put(MetricsScope.class, new MetricsScope(context.getRequiredTestClass().getName()));
+    }
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        MetricsScope scope = context.getStore(NAMESPACE).get(MetricsScope.class, MetricsScope.class);
+        if (scope != null) {
+            scope.enter();
+        }
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        MetricsScope.exit();
+    }
+
+    @Override
+    public void afterAll(ExtensionContext context) {
+        MetricsScope scope = context.getStore(NAMESPACE).remove(MetricsScope.class, MetricsScope.class);
+        if (scope == null) {
+            return;
+        }
+
+        PerformanceBudgets budgets = PerformanceBudgets.current();
+        List<String> breaches = new ArrayList<>();
+        scope.snapshot().forEach((endpoint, stats) -> breaches.addAll(budgets.check(endpoint, stats.latencies())));
+        if (breaches.isEmpty()) {
+            return;
+        }
+
+        String message = "Performance budgets breached by " + scope.getName() + ":\n  " + String.join("\n  ", breaches);
+        if (budgets.isEnforced()) {
+            throw new AssertionError(message);
+        }
+        System.out.println(message);
+    }
+}
@@ -0,0 +1,67 @@
+package benchmarks;
+
+import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.builder.ResponseSpecBuilder;
+import io.restassured.filter.log.RequestLoggingFilter;
+import io.restassured.filter.log.ResponseLoggingFilter;
+import io.restassured.http.ContentType;
+import io.restassured.specification.RequestSpecification;
+import io.restassured.specification.ResponseSpecification;
+import org.apache.http.HttpStatus;
+import org.openjdk.jmh.annotations.*;
+import specs.BaseSpec;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares building the request and response specifications on every call, as BaseSpec used to do,
+ * with handing out the instances cached by {@link BaseSpec#init(String, int)}.
+ * <p>
+ * Run with {@code mvn test -Pbenchmark -Djmh.args="BaseSpecBenchmark -prof gc"} to see the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BaseSpecBenchmark {
+
+    private static final String HOST = "localhost";
+    private static final int PORT = 3001;
+
+    @Setup
+    public void setup() {
+        BaseSpec.init(HOST, PORT);
+    }
+
+    @Benchmark
+    public RequestSpecification requestSpecBuiltPerCall() {
+        return new RequestSpecBuilder()
+            .setBaseUri("http://" + HOST)
+            .setPort(PORT)
+            .addFilter(new RequestLoggingFilter())
+            .addFilter(new ResponseLoggingFilter())
+            .setContentType(ContentType.JSON)
+            .setAccept("application/json")
+            .build();
+    }
+
+    @Benchmark
+    public RequestSpecification requestSpecCached() {
+        return BaseSpec.requestSpec();
+    }
+
+    @Benchmark
+    public ResponseSpecification responseSpecBuiltPerCall() {
+        return new ResponseSpecBuilder()
+            .expectStatusCode(HttpStatus.SC_OK)
+            .expectContentType(ContentType.JSON)
+            .build();
+    }
+
+    @Benchmark
+    public ResponseSpecification responseSpecCached() {
+        return BaseSpec.responseSpec();
+    }
+}
@@ -0,0 +1,56 @@
+package benchmarks;
+
+import builders.BookingBuilder;
+import helpers.BookingAssertions;
+import io.restassured.path.json.JsonPath;
+import model.Booking;
+import org.hamcrest.Matcher;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import static helpers.JsonSupport.BOOKING_WRITER;
+
+/**
+ * Compares asserting every field of a booking response body with one GPath expression per field, as a chain of
+ * {@code .body("firstname", equalTo(...))} calls does, with the single-parse {@link BookingAssertions} matcher.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookingAssertionsBenchmark {
+
+    private Booking booking;
+    private String bookingJson;
+    private Matcher<String> bookingMatcher;
+
+    @Setup
+    public void setup() throws IOException {
+        BookingBuilder.setSeed(42);
+        booking = new BookingBuilder().build();
+        bookingJson = BOOKING_WRITER.writeValueAsString(booking);
+        bookingMatcher = BookingAssertions.matchesBooking(booking);
+    }
+
+    @Benchmark
+    public boolean gpathPerField() {
+        JsonPath path = new JsonPath(bookingJson);
+        return Objects.equals(path.get("firstname"), booking.getFirstname())
+            & Objects.equals(path.get("lastname"), booking.getLastname())
+            & Objects.equals(path.get("totalprice"), booking.getTotalPrice())
+            & Objects.equals(path.get("depositpaid"), booking.isDepositPaid())
+            & Objects.equals(path.get("bookingdates.checkin"), booking.getBookingDates().getCheckin())
+            & Objects.equals(path.get("bookingdates.checkout"), booking.getBookingDates().getCheckout())
+            & Objects.equals(path.get("additionalneeds"), booking.getAdditionalNeeds());
+    }
+
+    @Benchmark
+    public boolean singleParse() {
+        return bookingMatcher.matches(bookingJson);
+    }
+}
@@ -0,0 +1,34 @@
+package benchmarks;
+
+import builders.BookingBuilder;
+import model.Booking;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of generating test bookings with {@link BookingBuilder}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookingBuilderBenchmark {
+
+    @Benchmark
+    public Booking buildRandomBooking() {
+        return new BookingBuilder().build();
+    }
+
+    @Benchmark
+    public Booking buildBookingWithOverrides() {
+        return new BookingBuilder()
+            .withFirstname("Xander")
+            .withLastname("Philpotts")
+            .withCheckin("2024-01-01")
+            .withCheckout("2024-01-02")
+            .build();
+    }
+}
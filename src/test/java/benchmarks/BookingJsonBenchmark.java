@@ -0,0 +1,64 @@
+package benchmarks;
+
+import builders.BookingBuilder;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import model.Booking;
+import model.BookingDates;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static helpers.JsonSupport.BOOKING_READER;
+import static helpers.JsonSupport.BOOKING_WRITER;
+import static helpers.JsonSupport.MAPPER;
+
+/**
+ * Measures Jackson serialization and deserialization of the booking model through the shared mapper.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookingJsonBenchmark {
+
+    private static final ObjectWriter DATES_WRITER = MAPPER.writerFor(BookingDates.class);
+    private static final ObjectReader DATES_READER = MAPPER.readerFor(BookingDates.class);
+
+    private Booking booking;
+    private byte[] bookingJson;
+    private BookingDates bookingDates;
+    private byte[] bookingDatesJson;
+
+    @Setup
+    public void setup() throws IOException {
+        BookingBuilder.setSeed(42);
+        booking = new BookingBuilder().build();
+        bookingJson = BOOKING_WRITER.writeValueAsBytes(booking);
+        bookingDates = booking.getBookingDates();
+        bookingDatesJson = DATES_WRITER.writeValueAsBytes(bookingDates);
+    }
+
+    @Benchmark
+    public byte[] serializeBooking() throws IOException {
+        return BOOKING_WRITER.writeValueAsBytes(booking);
+    }
+
+    @Benchmark
+    public Booking deserializeBooking() throws IOException {
+        return BOOKING_READER.readValue(bookingJson);
+    }
+
+    @Benchmark
+    public byte[] serializeBookingDates() throws IOException {
+        return DATES_WRITER.writeValueAsBytes(bookingDates);
+    }
+
+    @Benchmark
+    public BookingDates deserializeBookingDates() throws IOException {
+        return DATES_READER.readValue(bookingDatesJson);
+    }
+}
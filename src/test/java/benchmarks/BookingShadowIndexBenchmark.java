@@ -0,0 +1,63 @@
+package benchmarks;
+
+import model.Booking;
+import model.BookingDates;
+import org.openjdk.jmh.annotations.*;
+import shadow.BookingShadowIndex;
+import shadow.BookingShadowIndex.DateBounds;
+
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures computing the expected result of filtered GET /booking listings from a shadow index of 100,000 bookings,
+ * with 1,000 first names, 5,000 last names and checkin dates spread over a year.
+ * <p>
+ * Run with {@code mvn test -Pbenchmark -Djmh.args="BookingShadowIndexBenchmark"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookingShadowIndexBenchmark {
+
+    private static final int BOOKINGS = 100_000;
+    private static final LocalDate START = LocalDate.of(2026, 1, 1);
+
+    private BookingShadowIndex index;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        index = new BookingShadowIndex();
+        for (int id = 1; id <= BOOKINGS; id++) {
+            LocalDate checkin = START.plusDays(random.nextInt(365));
+            LocalDate checkout = checkin.plusDays(1 + random.nextInt(14));
+            index.put(id, new Booking("First" + random.nextInt(1_000), "Last" + random.nextInt(5_000), 100, true,
+                new BookingDates(checkin.toString(), checkout.toString()), "Breakfast"));
+        }
+    }
+
+    @Benchmark
+    public int[] queryByLastname() {
+        return index.query(null, "Last42", null, null, DateBounds.INCLUSIVE);
+    }
+
+    @Benchmark
+    public int[] queryByFirstnameAndLastname() {
+        return index.query("First7", "Last42", null, null, DateBounds.INCLUSIVE);
+    }
+
+    @Benchmark
+    public int[] queryByFirstnameAndDates() {
+        return index.query("First7", null, START.plusDays(100), START.plusDays(200), DateBounds.EXCLUSIVE);
+    }
+
+    @Benchmark
+    public int[] queryByLastCheckinWeek() {
+        return index.query(null, null, START.plusDays(358), null, DateBounds.INCLUSIVE);
+    }
+}
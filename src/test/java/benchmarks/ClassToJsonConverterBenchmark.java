@@ -0,0 +1,41 @@
+package benchmarks;
+
+import builders.BookingBuilder;
+import helpers.ClassToJsonConverter;
+import model.Booking;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures generating booking payloads with injected extra fields.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClassToJsonConverterBenchmark {
+
+    private final Map<String, Object> extraFields = Map.of("extraField", "extraValue", "extraNumber", 42);
+
+    private Booking booking;
+
+    @Setup
+    public void setup() {
+        BookingBuilder.setSeed(42);
+        booking = new BookingBuilder().build();
+    }
+
+    @Benchmark
+    public String convertWithExtraField() {
+        return ClassToJsonConverter.convertClassToJsonWithExtraField(booking, "extraField", "extraValue");
+    }
+
+    @Benchmark
+    public byte[] writeBytesWithExtraFields() {
+        return ClassToJsonConverter.writeClassToJsonWithExtraFields(booking, extraFields);
+    }
+}
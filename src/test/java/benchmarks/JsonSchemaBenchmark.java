@@ -0,0 +1,55 @@
+package benchmarks;
+
+import builders.BookingBuilder;
+import helpers.SchemaRegistry;
+import org.hamcrest.Matcher;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static helpers.JsonSupport.BOOKING_WRITER;
+import static io.restassured.module.jsv.JsonSchemaValidator.matchesJsonSchemaInClasspath;
+
+/**
+ * Measures validating a booking response body against BookingSchema.json with REST-assured's matcher, and with
+ * the schemas compiled once by {@link SchemaRegistry}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSchemaBenchmark {
+
+    private String bookingJson;
+    private Matcher<?> bookingSchemaMatcher;
+
+    @Setup
+    public void setup() throws IOException {
+        BookingBuilder.setSeed(42);
+        bookingJson = BOOKING_WRITER.writeValueAsString(new BookingBuilder().build());
+        bookingSchemaMatcher = matchesJsonSchemaInClasspath("BookingSchema.json");
+    }
+
+    @Benchmark
+    public boolean matcherCreatedPerAssertion() {
+        return matchesJsonSchemaInClasspath("BookingSchema.json").matches(bookingJson);
+    }
+
+    @Benchmark
+    public boolean matcherReused() {
+        return bookingSchemaMatcher.matches(bookingJson);
+    }
+
+    @Benchmark
+    public boolean registryMatcher() {
+        return SchemaRegistry.matchesBookingSchema().matches(bookingJson);
+    }
+
+    @Benchmark
+    public boolean registryIsValid() {
+        return SchemaRegistry.isValid(SchemaRegistry.BOOKING_SCHEMA, bookingJson);
+    }
+}
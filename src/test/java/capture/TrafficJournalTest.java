@@ -0,0 +1,94 @@
+package capture;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Writes exchanges through a {@link TrafficJournal} and reads them back.
+ */
+public class TrafficJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Reads back every exchange written, in order and with all fields")
+    public void testRoundTrip() {
+        Path file = directory.resolve("nested/traffic.jsonl");
+        List<CapturedExchange> exchanges = new ArrayList<>();
+        try (TrafficJournal journal = new TrafficJournal(file)) {
+            exchanges.add(CapturedExchange.builder()
+                .start(12)
+                .lane("worker-1")
+                .method("POST")
+                .path("/booking")
+                .headers(Map.of("Accept", "application/json", "Content-Type", "application/json"))
+                .body("{\"firstname\":\"Ada\",\"lastname\":\"Lovelace\"}")
+                .status(200)
+                .latency(850)
+                .response("{\"bookingid\":12,\"booking\":{\"firstname\":\"Ada\"}}")
+                .build());
+            // A response over the capture limit is left out, and GET has no body
+            exchanges.add(CapturedExchange.builder()
+                .start(1_500)
+                .lane("worker-2")
+                .method("GET")
+                .path("/booking?firstname=Ada%20Mae")
+                .headers(Map.of("Accept", "application/json"))
+                .status(200)
+                .latency(420)
+                .build());
+            exchanges.add(CapturedExchange.builder()
+                .start(2_000)
+                .lane("worker-1")
+                .method("DELETE")
+                .path("/booking/12")
+                .headers(Map.of("Cookie", "token=abc123"))
+                .status(201)
+                .latency(300)
+                .response("Created")
+                .build());
+            exchanges.forEach(journal::append);
+        }
+
+        assertThat(TrafficJournal.read(file), equalTo(exchanges));
+    }
+
+    @Test
+    @DisplayName("Counts the exchanges written and ignores the ones appended after closing")
+    public void testAppendAfterClose() {
+        Path file = directory.resolve("traffic.jsonl");
+        TrafficJournal journal = new TrafficJournal(file);
+        CapturedExchange exchange = CapturedExchange.builder().lane("main").method("GET").path("/ping").status(201)
+            .build();
+        journal.append(exchange);
+        journal.close();
+        journal.append(exchange);
+        journal.close();
+
+        assertThat(journal.written(), equalTo(1L));
+        assertThat(TrafficJournal.read(file), equalTo(List.of(exchange)));
+    }
+
+    @Test
+    @DisplayName("Rejects a file with a line that is not an exchange")
+    public void testInvalidLine() throws IOException {
+        Path file = directory.resolve("invalid.jsonl");
+        Files.writeString(file, "{\"method\":\"GET\",\"path\":\"/ping\",\"status\":201}\nnot json\n");
+
+        assertThrows(UncheckedIOException.class, () -> TrafficJournal.read(file));
+    }
+}
@@ -0,0 +1,196 @@
+package capture;
+
+import com.sun.net.httpserver.HttpServer;
+import load.UserThreads;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import specs.ConnectionConfig;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+/**
+ * Checks how {@link TrafficReplayer} compares response bodies, and that a replay against a local server sends the
+ * booking IDs and tokens the server returned instead of the captured ones.
+ */
+public class TrafficReplayerTest {
+
+    private static final int LANES = 4;
+
+    private final Queue<String> received = new ConcurrentLinkedQueue<>();
+    // GET /together only succeeds once a request from every lane has arrived
+    private final CountDownLatch together = new CountDownLatch(LANES);
+    private final ExecutorService handlers = Executors.newCachedThreadPool();
+    private HttpServer server;
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            String request = exchange.getRequestMethod() + " " + exchange.getRequestURI().getPath();
+            String cookie = exchange.getRequestHeaders().getFirst("Cookie");
+            received.add(cookie == null ? request : request + " " + cookie);
+            if (request.equals("GET /together")) {
+                together.countDown();
+                awaitTogether();
+            }
+
+            String body = switch (request) {
+                case "POST /auth" -> "{\"token\":\"replayed-token\"}";
+                case "POST /booking" -> "{\"bookingid\":99,\"booking\":{\"firstname\":\"Ada\"}}";
+                case "GET /booking/99", "PUT /booking/99" -> "{\"firstname\":\"Ada\"}";
+                case "GET /booking/5" -> "{\"firstname\":\"Seeded\"}";
+                case "GET /together" -> together.getCount() == 0 ? "{\"firstname\":\"Ada\"}" : null;
+                default -> null;
+            };
+            byte[] bytes = (body == null ? "Not Found" : body).getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(body == null ? 404 : 200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        server.setExecutor(handlers);
+        server.start();
+    }
+
+    @AfterEach
+    public void stopServer() {
+        server.stop(0);
+        handlers.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Matches bodies that only differ in booking IDs, tokens, field order or formatting")
+    public void testEquivalentBodies() {
+        assertThat(TrafficReplayer.bodyDifference(
+            "{\"bookingid\":12,\"booking\":{\"firstname\":\"Ada\",\"totalprice\":100}}",
+            "{ \"booking\": { \"totalprice\": 100, \"firstname\": \"Ada\" }, \"bookingid\": 99 }"), nullValue());
+        assertThat(TrafficReplayer.bodyDifference("{\"token\":\"abc\"}", "{\"token\":\"def\"}"), nullValue());
+        assertThat(TrafficReplayer.bodyDifference("Created", "Created"), nullValue());
+    }
+
+    @Test
+    @DisplayName("Describes the first field that differs by its JSON pointer")
+    public void testDifferentBodies() {
+        assertThat(TrafficReplayer.bodyDifference(
+                "{\"booking\":{\"firstname\":\"Ada\",\"lastname\":\"Lovelace\"}}",
+                "{\"booking\":{\"firstname\":\"Bea\",\"lastname\":\"Smith\"}}"),
+            equalTo("/booking/firstname is \"Bea\", captured \"Ada\""));
+        assertThat(TrafficReplayer.bodyDifference("{\"firstname\":\"Ada\",\"depositpaid\":true}",
+                "{\"firstname\":\"Ada\"}"),
+            equalTo("/depositpaid is missing, captured true"));
+        assertThat(TrafficReplayer.bodyDifference("[{\"bookingid\":1,\"n\":1},{\"n\":2}]", "[{\"n\":1},{\"n\":3}]"),
+            equalTo("/1/n is 3, captured 2"));
+        assertThat(TrafficReplayer.bodyDifference("[1,2]", "[1,2,3]"), equalTo("/ is [1,2,3], captured [1,2]"));
+        assertThat(TrafficReplayer.bodyDifference("Created", "Forbidden"),
+            equalTo("body \"Forbidden\", captured \"Created\""));
+    }
+
+    @Test
+    @DisplayName("Sends the booking IDs and tokens returned during the replay in place of the captured ones")
+    public void testRemapsBookingIdsAndTokens() throws InterruptedException {
+        List<CapturedExchange> captured = List.of(
+            exchange(0, "creator", "POST", "/auth", null, "{\"token\":\"captured-token\"}"),
+            exchange(10, "creator", "POST", "/booking", null,
+                "{\"bookingid\":12,\"booking\":{\"firstname\":\"Ada\"}}"),
+            // Another lane uses the booking and token, and a booking that was not created during the capture
+            exchange(20, "user", "GET", "/booking/12", null, "{\"firstname\":\"Ada\"}"),
+            exchange(30, "user", "PUT", "/booking/12", "token=captured-token", "{\"firstname\":\"Ada\"}"),
+            exchange(40, "user", "GET", "/booking/5", null, "{\"firstname\":\"Seeded\"}"));
+
+        ReplayReport report = replayer().replay(captured);
+
+        assertThat(received, containsInAnyOrder("POST /auth", "POST /booking", "GET /booking/99",
+            "PUT /booking/99 token=replayed-token", "GET /booking/5"));
+        assertThat(report.requests(), equalTo(5L));
+        assertThat(report.differences().toString(), report.differences().isEmpty(), equalTo(true));
+    }
+
+    @Test
+    @DisplayName("Reports responses whose status or body differ from the captured ones")
+    public void testReportsDifferences() throws InterruptedException {
+        List<CapturedExchange> captured = List.of(
+            exchange(0, "user", "GET", "/booking/5", null, "{\"firstname\":\"Captured\"}"),
+            exchange(10, "user", "GET", "/booking/6", null, "{\"firstname\":\"Gone\"}"));
+
+        ReplayReport report = replayer().replay(captured);
+
+        assertThat(report.bodyMismatches(), equalTo(1L));
+        assertThat(report.statusMismatches(), equalTo(1L));
+        assertThat(report.failures(), equalTo(0L));
+    }
+
+    @Test
+    @DisplayName("Replays the requests of unnamed threads concurrently, on a lane per thread")
+    public void testUnnamedLanes() throws InterruptedException {
+        Queue<CapturedExchange> captured = new ConcurrentLinkedQueue<>();
+        // Virtual threads have no name, and the barrier keeps the pooled platform threads from being reused
+        CyclicBarrier started = new CyclicBarrier(LANES);
+        ExecutorService threads = UserThreads.newUserExecutor(LANES);
+        for (int i = 0; i < LANES; i++) {
+            threads.execute(() -> {
+                try {
+                    started.await();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+                captured.add(exchange(0, CaptureFilter.lane(), "GET", "/together", null, "{\"firstname\":\"Ada\"}"));
+            });
+        }
+        threads.shutdown();
+        threads.awaitTermination(10, TimeUnit.SECONDS);
+
+        assertThat(captured.stream().map(CapturedExchange::getLane).distinct().count(), equalTo((long) LANES));
+        ReplayReport report = replayer().replay(List.copyOf(captured));
+
+        assertThat(report.requests(), equalTo((long) LANES));
+        assertThat(report.statusMismatches(), equalTo(0L));
+    }
+
+    private void awaitTogether() {
+        try {
+            together.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private TrafficReplayer replayer() {
+        return new TrafficReplayer(URI.create("http://localhost:" + server.getAddress().getPort()), 0,
+            ConnectionConfig.builder().build());
+    }
+
+    private static CapturedExchange exchange(long start, String lane, String method, String path, String cookie,
+                                             String response) {
+        return CapturedExchange.builder()
+            .start(start)
+            .lane(lane)
+            .method(method)
+            .path(path)
+            .headers(cookie == null ? Map.of("Accept", "application/json") : Map.of("Cookie", cookie))
+            .body(method.equals("POST") || method.equals("PUT") ? "{}" : null)
+            .status(200)
+            .response(response)
+            .build();
+    }
+}
@@ -0,0 +1,221 @@
+package client;
+
+import builders.BookingBuilder;
+import com.sun.net.httpserver.HttpServer;
+import metrics.EndpointMetrics;
+import metrics.EndpointStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import specs.ConnectionConfig;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Authenticator;
+import java.net.CookieHandler;
+import java.net.InetSocketAddress;
+import java.net.ProxySelector;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks that {@link AsyncBookingClient} caps the requests it has in flight and records them, against a local
+ * server that answers POST /booking after a short delay.
+ */
+public class AsyncBookingClientTest {
+
+    private static final int MAX_IN_FLIGHT = 4;
+    private static final int REQUESTS = 100;
+
+    private final AtomicInteger concurrent = new AtomicInteger();
+    private final AtomicInteger maxConcurrent = new AtomicInteger();
+    private final AtomicInteger nextId = new AtomicInteger();
+    private ExecutorService serverThreads;
+    private HttpServer server;
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        serverThreads = Executors.newFixedThreadPool(MAX_IN_FLIGHT * 4);
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(serverThreads);
+        server.createContext("/booking", exchange -> {
+            maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            concurrent.decrementAndGet();
+            exchange.getRequestBody().readAllBytes();
+            byte[] body = ("{\"bookingid\":" + nextId.incrementAndGet() + "}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    public void stopServer() {
+        server.stop(0);
+        serverThreads.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Never has more than maxTotal requests in flight and records every request")
+    public void testCapsRequestsInFlightAndRecordsMetrics() {
+        URI baseUri = URI.create("http://localhost:" + server.getAddress().getPort());
+        AsyncBookingClient client = new AsyncBookingClient(baseUri,
+            ConnectionConfig.builder().maxTotal(MAX_IN_FLIGHT).build());
+        long recorded = recordedCreates();
+
+        List<CompletableFuture<Integer>> bookingIds = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            bookingIds.add(client.createBooking(new BookingBuilder().build()));
+            assertThat(client.inFlight(), lessThanOrEqualTo(MAX_IN_FLIGHT));
+        }
+        CompletableFuture.allOf(bookingIds.toArray(CompletableFuture[]::new)).join();
+
+        assertThat(maxConcurrent.get(), lessThanOrEqualTo(MAX_IN_FLIGHT));
+        assertThat(maxConcurrent.get(), greaterThan(1));
+        assertThat(nextId.get(), equalTo(REQUESTS));
+        assertThat(client.inFlight(), equalTo(0));
+        // Other tests may create bookings at the same time
+        assertThat(recordedCreates() - recorded, greaterThanOrEqualTo((long) REQUESTS));
+    }
+
+    @Test
+    @DisplayName("Fails a long queue of requests that fail synchronously without overflowing the stack")
+    public void testSynchronousFailuresDoNotRecurse() {
+        CompletableFuture<HttpResponse<byte[]>> firstResponse = new CompletableFuture<>();
+        AsyncBookingClient client = new AsyncBookingClient(URI.create("http://localhost:1"),
+            new FailingHttpClient(firstResponse), ConnectionConfig.builder().maxTotal(1).build());
+
+        // The first request holds the only slot, so the others queue up behind it
+        CompletableFuture<Integer> first = client.createBooking(new BookingBuilder().build());
+        List<CompletableFuture<Integer>> queued = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            queued.add(client.getBooking(i).thenApply(HttpResponse::statusCode));
+        }
+        firstResponse.completeExceptionally(new IOException("Connection reset"));
+
+        assertThat(assertThrows(CompletionException.class, first::join).getCause(), instanceOf(IOException.class));
+        for (CompletableFuture<Integer> request : queued) {
+            assertThat(assertThrows(CompletionException.class, request::join).getCause(),
+                instanceOf(IOException.class));
+        }
+        assertThat(client.inFlight(), equalTo(0));
+    }
+
+    private static long recordedCreates() {
+        EndpointStats stats = EndpointMetrics.snapshot().get("POST /booking");
+        return stats == null ? 0 : stats.latencies().getTotalCount();
+    }
+
+    /**
+     * Answers the first request with the given future and fails every other one before returning, as
+     * {@link HttpClient} does for a request it cannot send.
+     */
+    private static final class FailingHttpClient extends HttpClient {
+
+        private final AtomicInteger requests = new AtomicInteger();
+        private final CompletableFuture<HttpResponse<byte[]>> firstResponse;
+
+        FailingHttpClient(CompletableFuture<HttpResponse<byte[]>> firstResponse) {
+            this.firstResponse = firstResponse;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request,
+                                                                HttpResponse.BodyHandler<T> handler) {
+            if (requests.getAndIncrement() == 0) {
+                return (CompletableFuture<HttpResponse<T>>) (CompletableFuture<?>) firstResponse;
+            }
+            return CompletableFuture.failedFuture(new IOException("Connection refused"));
+        }
+
+        @Override
+        public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request,
+                                                                HttpResponse.BodyHandler<T> handler,
+                                                                HttpResponse.PushPromiseHandler<T> pushPromiseHandler) {
+            return sendAsync(request, handler);
+        }
+
+        @Override
+        public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Optional<CookieHandler> cookieHandler() {
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<Duration> connectTimeout() {
+            return Optional.empty();
+        }
+
+        @Override
+        public Redirect followRedirects() {
+            return Redirect.NEVER;
+        }
+
+        @Override
+        public Optional<ProxySelector> proxy() {
+            return Optional.empty();
+        }
+
+        @Override
+        public SSLContext sslContext() {
+            return null;
+        }
+
+        @Override
+        public SSLParameters sslParameters() {
+            return null;
+        }
+
+        @Override
+        public Optional<Authenticator> authenticator() {
+            return Optional.empty();
+        }
+
+        @Override
+        public Version version() {
+            return Version.HTTP_1_1;
+        }
+
+        @Override
+        public Optional<Executor> executor() {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package consistency;
+
+import load.Operation;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static load.Operation.CREATE;
+import static load.Operation.DELETE;
+import static load.Operation.GET;
+import static load.Operation.PARTIAL_UPDATE;
+import static load.Operation.UPDATE;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+
+/**
+ * Feeds {@link ConsistencyChecker} hand-built histories of one booking, with times in nanoseconds. Writes store
+ * their tag in the fields they change, reads return the fields given.
+ */
+public class ConsistencyCheckerTest {
+
+    private static final int BOOKING_ID = 7;
+
+    private static final HistoryEntry CREATED = write(CREATE, 0, 10, 200, "w1");
+
+    @Test
+    @DisplayName("Reports a read of a value no write stored")
+    public void testUnknownValue() {
+        assertAnomalies(List.of(CREATED, read(20, 30, "w9")), Anomaly.Type.UNKNOWN_VALUE);
+    }
+
+    @Test
+    @DisplayName("Reports a read of a value stored by a rejected write")
+    public void testValueOfRejectedWrite() {
+        assertAnomalies(List.of(CREATED, write(UPDATE, 20, 30, 400, "w2"), read(35, 40, "w2")),
+            Anomaly.Type.UNKNOWN_VALUE);
+    }
+
+    @Test
+    @DisplayName("Reports a read of a value written after the read completed")
+    public void testFutureRead() {
+        assertAnomalies(List.of(CREATED, write(UPDATE, 50, 60, 200, "w2"), read(20, 30, "w2")),
+            Anomaly.Type.FUTURE_READ);
+    }
+
+    @Test
+    @DisplayName("Reports a read of an overwritten value while writes are still being sent")
+    public void testStaleRead() {
+        assertAnomalies(List.of(CREATED,
+                write(UPDATE, 20, 30, 200, "w2"),
+                read(40, 45, "w1"),
+                write(UPDATE, 50, 60, 200, "w3"),
+                read(70, 75, "w3")),
+            Anomaly.Type.STALE_READ);
+    }
+
+    @Test
+    @DisplayName("Reports an overwritten value still read after the last write completed")
+    public void testLostUpdate() {
+        assertAnomalies(List.of(CREATED, write(UPDATE, 20, 30, 200, "w2"), read(40, 45, "w1")),
+            Anomaly.Type.LOST_UPDATE);
+    }
+
+    @Test
+    @DisplayName("Reports a read returning an older value than a read that completed before it")
+    public void testReadInversion() {
+        assertAnomalies(List.of(CREATED,
+                write(UPDATE, 20, 100, 200, "w2"),
+                read(30, 40, "w2"),
+                read(50, 60, "w1")),
+            Anomaly.Type.READ_INVERSION);
+    }
+
+    @Test
+    @DisplayName("Reports a read with the first name of one write and the last name of another")
+    public void testTornNames() {
+        assertAnomalies(List.of(CREATED,
+                write(PARTIAL_UPDATE, 20, 30, 200, "w2"),
+                entry(GET, 25, 28, 200, "w2", "w1", "w1")),
+            Anomaly.Type.TORN_WRITE);
+    }
+
+    @Test
+    @DisplayName("Reports a read with the names of one write and the details of a later one")
+    public void testTornDetails() {
+        assertAnomalies(List.of(CREATED,
+                write(PARTIAL_UPDATE, 12, 15, 200, "w2"),
+                write(UPDATE, 20, 100, 200, "w3"),
+                entry(GET, 25, 200, 200, "w2", "w2", "w3")),
+            Anomaly.Type.TORN_WRITE);
+    }
+
+    @Test
+    @DisplayName("Reports a booking read after a delete of it completed")
+    public void testResurrected() {
+        assertAnomalies(List.of(CREATED, write(DELETE, 20, 30, 201, null), read(35, 40, "w1")),
+            Anomaly.Type.RESURRECTED);
+    }
+
+    @Test
+    @DisplayName("Reports a booking missing although no delete of it was sent")
+    public void testLostBooking() {
+        assertAnomalies(List.of(CREATED, entry(GET, 20, 30, 404, null, null, null)), Anomaly.Type.LOST_BOOKING);
+    }
+
+    @Test
+    @DisplayName("Reports a write rejected as missing although no delete of it was sent")
+    public void testWriteToLostBooking() {
+        assertAnomalies(List.of(CREATED, write(UPDATE, 20, 30, 405, "w2")), Anomaly.Type.LOST_BOOKING);
+    }
+
+    @Test
+    @DisplayName("Accepts reads that return the old or the new value while a write is in progress")
+    public void testReadsOverlappingWrite() {
+        assertLinearizable(List.of(CREATED,
+            write(UPDATE, 20, 100, 200, "w2"),
+            read(25, 40, "w1"),
+            read(30, 50, "w2"),
+            read(60, 70, "w2"),
+            read(110, 120, "w2")));
+    }
+
+    @Test
+    @DisplayName("Accepts reads that agree on one order of two concurrent writes")
+    public void testConcurrentWrites() {
+        assertLinearizable(List.of(CREATED,
+            write(UPDATE, 20, 60, 200, "w2"),
+            write(UPDATE, 25, 50, 200, "w3"),
+            read(30, 55, "w3"),
+            read(70, 80, "w2"),
+            read(90, 95, "w2")));
+    }
+
+    @Test
+    @DisplayName("Accepts a partial update whose names are read alongside the details of the create")
+    public void testPartialUpdateKeepsDetails() {
+        assertLinearizable(List.of(CREATED,
+            write(PARTIAL_UPDATE, 20, 30, 200, "w2"),
+            entry(GET, 40, 45, 200, "w2", "w2", "w1")));
+    }
+
+    @Test
+    @DisplayName("Accepts the old value after a write without response, and its value later on")
+    public void testIndeterminateWrite() {
+        assertLinearizable(List.of(CREATED,
+            write(UPDATE, 20, 30, 0, "w2"),
+            read(35, 38, "w1"),
+            read(40, 45, "w2"),
+            write(UPDATE, 50, 60, 503, "w3"),
+            read(70, 75, "w2")));
+    }
+
+    @Test
+    @DisplayName("Accepts reads finding the booking or not while a delete of it is in progress")
+    public void testReadsOverlappingDelete() {
+        assertLinearizable(List.of(CREATED,
+            write(DELETE, 20, 30, 201, null),
+            read(25, 28, "w1"),
+            entry(GET, 26, 29, 404, null, null, null),
+            write(DELETE, 22, 40, 405, null),
+            entry(GET, 50, 55, 404, null, null, null)));
+    }
+
+    private static void assertAnomalies(List<HistoryEntry> history, Anomaly.Type... expected) {
+        assertThat(ConsistencyChecker.check(history).stream().map(Anomaly::type).toList(), contains(expected));
+    }
+
+    private static void assertLinearizable(List<HistoryEntry> history) {
+        assertThat(ConsistencyChecker.check(history), empty());
+    }
+
+    private static HistoryEntry write(Operation operation, long invoke, long complete, int status, String tag) {
+        String details = operation == CREATE || operation == UPDATE ? tag : null;
+        return entry(operation, invoke, complete, status, tag, tag, details);
+    }
+
+    private static HistoryEntry read(long invoke, long complete, String tag) {
+        return entry(GET, invoke, complete, 200, tag, tag, tag);
+    }
+
+    private static HistoryEntry entry(Operation operation, long invoke, long complete, int status,
+                                      String firstname, String lastname, String additionalNeeds) {
+        return new HistoryEntry(operation == GET ? 2 : 1, operation, BOOKING_ID, invoke, complete, status,
+            firstname, lastname, additionalNeeds);
+    }
+}
@@ -0,0 +1,89 @@
+package endpoints.auth;
+
+import base.BaseTest;
+import cluster.BookerInstance;
+import cluster.LoadBalancer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Isolated;
+import specs.BaseSpec;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static helpers.AuthenticationHelper.clearAuthenticationTokens;
+import static helpers.AuthenticationHelper.getAuthenticationRequestCount;
+import static helpers.AuthenticationHelper.getAuthenticationToken;
+import static helpers.AuthenticationHelper.invalidateAuthenticationToken;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+
+/**
+ * Checks how many requests the token cache of {@link helpers.AuthenticationHelper} sends to /auth. Runs isolated,
+ * so other tests do not fetch tokens while the requests are counted.
+ */
+@Isolated
+public class AuthenticationTokenCacheTest extends BaseTest {
+
+    private static final int THREADS = 32;
+
+    @Test
+    @DisplayName("Requests a single token when many threads ask for one at once")
+    public void testConcurrentCallersShareOneAuthRequest() throws Exception {
+        clearAuthenticationTokens();
+        int requests = getAuthenticationRequestCount();
+
+        List<String> tokens = getTokensConcurrently();
+
+        assertThat(getAuthenticationRequestCount() - requests, equalTo(1));
+        assertThat(new HashSet<>(tokens), hasSize(1));
+    }
+
+    @Test
+    @DisplayName("Reuses the cached token until it is invalidated")
+    public void testInvalidatedTokenIsRequestedAgain() throws Exception {
+        String token = getAuthenticationToken();
+        int requests = getAuthenticationRequestCount();
+
+        assertThat(getAuthenticationToken(), equalTo(token));
+        assertThat(getAuthenticationRequestCount() - requests, equalTo(0));
+
+        invalidateAuthenticationToken(token);
+        getTokensConcurrently();
+        assertThat(getAuthenticationRequestCount() - requests, equalTo(1));
+    }
+
+    /**
+     * Gets a token from {@value #THREADS} threads released at once, all pinned to the caller's booker instance.
+     */
+    private static List<String> getTokensConcurrently() throws Exception {
+        LoadBalancer loadBalancer = BaseSpec.loadBalancer();
+        BookerInstance instance = loadBalancer == null ? null : loadBalancer.stickyInstance();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    LoadBalancer.pin(instance);
+                    start.await();
+                    return getAuthenticationToken();
+                }));
+            }
+            start.countDown();
+            List<String> tokens = new ArrayList<>();
+            for (Future<String> future : futures) {
+                tokens.add(future.get());
+            }
+            return tokens;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -9,12 +9,14 @@ import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import static helpers.BookingAssertions.matchesCreatedBooking;
 import static helpers.ClassToJsonConverter.convertClassToJsonWithExtraField;
+import static helpers.SchemaRegistry.matchesCreatedBookingSchema;
 import static io.restassured.RestAssured.given;
-import static io.restassured.module.jsv.JsonSchemaValidator.matchesJsonSchemaInClasspath;
 import static org.hamcrest.Matchers.*;
 import static specs.BaseSpec.requestSpec;
 import static specs.BaseSpec.responseSpec;
+import static specs.PerformanceBudgets.withinBudget;
 
 public class CreateBookingTest extends BaseTest {
 
@@ -30,14 +32,8 @@ public class CreateBookingTest extends BaseTest {
             .post("/booking")
             .then()
             .spec(responseSpec())
-            .body("bookingid", is(notNullValue()))
-            .body("booking.firstname", equalTo(booking.getFirstname()))
-            .body("booking.lastname", equalTo(booking.getLastname()))
-            .body("booking.totalprice", equalTo(booking.getTotalPrice()))
-            .body("booking.depositpaid", equalTo(booking.isDepositPaid()))
-            .body("booking.bookingdates.checkin", equalTo(booking.getBookingDates().getCheckin()))
-            .body("booking.bookingdates.checkout", equalTo(booking.getBookingDates().getCheckout()))
-            .body("booking.additionalneeds", equalTo(booking.getAdditionalNeeds()));
+            .spec(withinBudget("POST /booking"))
+            .body(matchesCreatedBooking(booking));
     }
 
     @Test
@@ -52,7 +48,7 @@ public class CreateBookingTest extends BaseTest {
             .post("/booking")
             .then()
             .spec(responseSpec())
-            .body(matchesJsonSchemaInClasspath("CreatedBookingSchema.json"));
+            .body(matchesCreatedBookingSchema());
     }
 
     // TODO XML payload
@@ -2,14 +2,29 @@ package endpoints.booking;
 
 import base.BaseTest;
 import builders.BookingBuilder;
+import helpers.BookingIds;
 import model.Booking;
 import org.apache.http.HttpStatus;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import shadow.BookingShadowIndex;
+import shadow.BookingShadowIndex.DateBounds;
 
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static builders.BookingBuilder.unique;
 import static helpers.BookingHelper.createBooking;
+import static helpers.BookingHelper.createBookings;
+import static helpers.BookingHelper.getBookingIds;
+import static helpers.BookingIds.containsBookingIds;
+import static helpers.BookingIds.hasBookingCount;
+import static helpers.BookingIds.isSubsetOf;
 import static io.restassured.RestAssured.given;
+import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 import static specs.BaseSpec.requestSpec;
 import static specs.BaseSpec.responseSpec;
@@ -19,19 +34,18 @@ public class GetBookingIdsTest extends BaseTest {
     @Test
     @DisplayName("Responds with all booking IDs when getting collection")
     public void testGetAllBookingIDs() {
-        given()
-            .spec(requestSpec())
-            .when()
-            .get("/booking")
-            .then()
-            .spec(responseSpec())
-            .body("bookingid", is(notNullValue()));
+        int bookingId = createBooking(new BookingBuilder().build());
+
+        BookingIds bookingIds = getBookingIds(Map.of());
+
+        assertThat(bookingIds, hasBookingCount(greaterThan(0)));
+        assertThat(bookingIds, containsBookingIds(bookingId));
     }
 
     @Test
     @DisplayName("Responds with subset of booking IDs when filtering by firstname")
     public void testFilterByFirstName() {
-        Booking booking = new BookingBuilder().withFirstname("Xander").build();
+        Booking booking = new BookingBuilder().withFirstname(unique("Xander")).build();
         createBooking(booking);
 
         given()
@@ -48,7 +62,7 @@ public class GetBookingIdsTest extends BaseTest {
     @Test
     @DisplayName("Responds with subset of booking IDs when filtering by lastname")
     public void testFilterByLastName() {
-        Booking booking = new BookingBuilder().withLastname("Philpotts").build();
+        Booking booking = new BookingBuilder().withLastname(unique("Philpotts")).build();
         createBooking(booking);
 
         given()
@@ -66,8 +80,8 @@ public class GetBookingIdsTest extends BaseTest {
     @DisplayName("Responds with subset of booking IDs when filtering by firstname & lastname")
     public void testFilterByFirstAndLastName() {
         Booking booking = new BookingBuilder()
-            .withFirstname("Kenyon")
-            .withLastname("Beltran")
+            .withFirstname(unique("Kenyon"))
+            .withLastname(unique("Beltran"))
             .build();
         createBooking(booking);
 
@@ -83,6 +97,65 @@ public class GetBookingIdsTest extends BaseTest {
             .body(".", hasSize(1));
     }
 
+    @Test
+    @DisplayName("Responds with exactly the booking IDs the shadow index expects when filtering by names")
+    public void testFilterByNamesMatchesShadowIndex() {
+        String lastname = unique("Shadow");
+        List<String> firstnames = List.of(unique("Ada"), unique("Brook"), unique("Cyrus"), unique("Delphine"));
+        createShadowedBookings(lastname, firstnames);
+        BookingShadowIndex index = BookingShadowIndex.shared();
+
+        assertListsExpectedIds(index, Map.of("lastname", lastname), DateBounds.INCLUSIVE);
+        for (String firstname : firstnames) {
+            assertListsExpectedIds(index, Map.of("firstname", firstname), DateBounds.INCLUSIVE);
+            assertListsExpectedIds(index, Map.of("firstname", firstname, "lastname", lastname), DateBounds.INCLUSIVE);
+        }
+    }
+
+    @EnabledIfSystemProperty(named = "booker.target", matches = "embedded",
+        disabledReason = "Disabled because API date filters are broken due to the MongoDB query, see ISSUES.md")
+    @Test
+    @DisplayName("Responds with exactly the booking IDs the shadow index expects when filtering by names and dates")
+    public void testFilterByDatesMatchesShadowIndex() {
+        String lastname = unique("Shadow");
+        List<String> firstnames = List.of(unique("Ada"), unique("Brook"));
+        List<Booking> bookings = createShadowedBookings(lastname, firstnames);
+        BookingShadowIndex index = BookingShadowIndex.shared();
+
+        // booker compares dates strictly, see ISSUES.md
+        for (Booking booking : bookings.subList(0, Math.min(5, bookings.size()))) {
+            String checkin = booking.getBookingDates().getCheckin();
+            String checkout = booking.getBookingDates().getCheckout();
+            assertListsExpectedIds(index, Map.of("lastname", lastname, "checkin", checkin), DateBounds.EXCLUSIVE);
+            assertListsExpectedIds(index, Map.of("lastname", lastname, "checkout", checkout), DateBounds.EXCLUSIVE);
+            assertListsExpectedIds(index, Map.of("lastname", lastname, "checkin", checkin, "checkout", checkout),
+                DateBounds.EXCLUSIVE);
+            assertListsExpectedIds(index,
+                Map.of("firstname", booking.getFirstname(), "lastname", lastname, "checkin", checkin),
+                DateBounds.EXCLUSIVE);
+        }
+    }
+
+    /**
+     * Creates {@code booker.shadow.bookings} bookings (200) with the given last name, cycling through the first names.
+     */
+    private static List<Booking> createShadowedBookings(String lastname, List<String> firstnames) {
+        List<Booking> bookings = IntStream.range(0, Integer.getInteger("booker.shadow.bookings", 200))
+            .mapToObj(i -> new BookingBuilder()
+                .withFirstname(firstnames.get(i % firstnames.size()))
+                .withLastname(lastname)
+                .build())
+            .toList();
+        createBookings(bookings.stream(), 16);
+        return bookings;
+    }
+
+    private static void assertListsExpectedIds(BookingShadowIndex index, Map<String, ?> filters, DateBounds bounds) {
+        int[] expected = index.query(filters, bounds);
+        assertThat("GET /booking?" + filters, getBookingIds(filters),
+            allOf(containsBookingIds(expected), isSubsetOf(expected)));
+    }
+
     @Disabled("Disabled because API returns all bookings due to date issue with the MongoDB query")
     @Test
     @DisplayName("Responds with subset of booking IDs when filtering by checkin date")
@@ -152,7 +225,7 @@ public class GetBookingIdsTest extends BaseTest {
     @DisplayName("Responds with subset of booking IDs when filtering by name, checkin and checkout date")
     public void testFilterByNameWithCheckinAndCheckoutDate() {
         Booking booking = new BookingBuilder()
-            .withFirstname("Donald")
+            .withFirstname(unique("Donald"))
             .withCheckin("2024-01-01")
             .withCheckout("2024-01-02")
             .build();
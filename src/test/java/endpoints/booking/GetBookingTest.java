@@ -8,12 +8,13 @@ import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import static helpers.BookingAssertions.matchesBooking;
 import static helpers.BookingHelper.createBooking;
+import static helpers.SchemaRegistry.matchesBookingSchema;
 import static io.restassured.RestAssured.given;
-import static io.restassured.module.jsv.JsonSchemaValidator.matchesJsonSchemaInClasspath;
 import static org.hamcrest.Matchers.equalTo;
-import static org.hamcrest.Matchers.isA;
 import static specs.BaseSpec.*;
+import static specs.PerformanceBudgets.withinBudget;
 
 public class GetBookingTest extends BaseTest {
 
@@ -30,13 +31,8 @@ public class GetBookingTest extends BaseTest {
             .get("/booking/{id}")
             .then()
             .spec(responseSpec())
-            .body("firstname", equalTo(booking.getFirstname()))
-            .body("lastname", equalTo(booking.getLastname()))
-            .body("totalprice", isA(Integer.class))
-            .body("depositpaid", isA(Boolean.class))
-            .body("bookingdates.checkin", equalTo(booking.getBookingDates().getCheckin()))
-            .body("bookingdates.checkout", equalTo(booking.getBookingDates().getCheckout()))
-            .body("additionalneeds", equalTo(booking.getAdditionalNeeds()));
+            .spec(withinBudget("GET /booking/{id}"))
+            .body(matchesBooking(booking));
     }
 
     @Test
@@ -49,7 +45,7 @@ public class GetBookingTest extends BaseTest {
             .get("/booking/{id}")
             .then()
             .spec(responseSpec())
-            .body(matchesJsonSchemaInClasspath("BookingSchema.json"));
+            .body(matchesBookingSchema());
     }
 
     @Disabled("Disabled because API incorrectly returns wrong content-type")
@@ -12,9 +12,10 @@ import java.util.HashMap;
 import java.util.Map;
 
 import static helpers.AuthenticationHelper.getAuthenticationToken;
+import static helpers.BookingAssertions.matchesBooking;
 import static helpers.BookingHelper.createBooking;
+import static helpers.SchemaRegistry.matchesBookingSchema;
 import static io.restassured.RestAssured.given;
-import static io.restassured.module.jsv.JsonSchemaValidator.matchesJsonSchemaInClasspath;
 import static org.hamcrest.Matchers.equalTo;
 import static specs.BaseSpec.requestSpec;
 import static specs.BaseSpec.responseSpec;
@@ -32,6 +33,11 @@ public class PartialUpdateTest extends BaseTest {
         payload.put("firstname", "Pepper");
         payload.put("lastname", "Potts");
 
+        // Only the names are expected to change
+        Booking expectedBooking = new Booking(payload.get("firstname"), payload.get("lastname"),
+            originalBooking.getTotalPrice(), originalBooking.isDepositPaid(), originalBooking.getBookingDates(),
+            originalBooking.getAdditionalNeeds());
+
         // Get authorisation token
         String token = getAuthenticationToken();
 
@@ -45,14 +51,8 @@ public class PartialUpdateTest extends BaseTest {
             .patch("/booking/{id}")
             .then()
             .spec(responseSpec())
-            .body("firstname", equalTo(payload.get("firstname")))
-            .body("lastname", equalTo(payload.get("lastname")))
-            .body("totalprice", equalTo(originalBooking.getTotalPrice()))
-            .body("depositpaid", equalTo(originalBooking.isDepositPaid()))
-            .body("bookingdates.checkin", equalTo(originalBooking.getBookingDates().getCheckin()))
-            .body("bookingdates.checkout", equalTo(originalBooking.getBookingDates().getCheckout()))
-            .body("additionalneeds", equalTo(originalBooking.getAdditionalNeeds()))
-            .body(matchesJsonSchemaInClasspath("BookingSchema.json"));
+            .body(matchesBooking(expectedBooking))
+            .body(matchesBookingSchema());
     }
 
     @Test
@@ -9,10 +9,10 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import static helpers.AuthenticationHelper.getAuthenticationToken;
+import static helpers.BookingAssertions.matchesBooking;
 import static helpers.BookingHelper.createBooking;
+import static helpers.SchemaRegistry.matchesBookingSchema;
 import static io.restassured.RestAssured.given;
-import static io.restassured.module.jsv.JsonSchemaValidator.matchesJsonSchemaInClasspath;
-import static org.hamcrest.Matchers.equalTo;
 import static specs.BaseSpec.requestSpec;
 import static specs.BaseSpec.responseSpec;
 
@@ -39,13 +39,7 @@ public class UpdateBookingTest extends BaseTest {
             .put("/booking/{id}")
             .then()
             .spec(responseSpec())
-            .body("firstname", equalTo(updatedBooking.getFirstname()))
-            .body("lastname", equalTo(updatedBooking.getLastname()))
-            .body("totalprice", equalTo(updatedBooking.getTotalPrice()))
-            .body("depositpaid", equalTo(updatedBooking.isDepositPaid()))
-            .body("bookingdates.checkin", equalTo(updatedBooking.getBookingDates().getCheckin()))
-            .body("bookingdates.checkout", equalTo(updatedBooking.getBookingDates().getCheckout()))
-            .body("additionalneeds", equalTo(updatedBooking.getAdditionalNeeds()));
+            .body(matchesBooking(updatedBooking));
     }
 
     @Test
@@ -68,7 +62,7 @@ public class UpdateBookingTest extends BaseTest {
             .put("/booking/{id}")
             .then()
             .spec(responseSpec())
-            .body(matchesJsonSchemaInClasspath("BookingSchema.json"));
+            .body(matchesBookingSchema());
     }
 
     @Test
@@ -7,6 +7,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import static specs.BaseSpec.requestSpec;
+import static specs.PerformanceBudgets.withinBudget;
 
 public class HealthCheckTest extends BaseTest {
 
@@ -20,7 +21,8 @@ public class HealthCheckTest extends BaseTest {
             .get("/ping")
             .then()
             .assertThat()
-            .statusCode(HttpStatus.SC_CREATED);
+            .statusCode(HttpStatus.SC_CREATED)
+            .spec(withinBudget("GET /ping"));
 
         // This should really be SC_OK (200) since we didn't create any data - idempotent
     }
@@ -0,0 +1,83 @@
+package helpers;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+import static helpers.BookingIds.containsBookingIds;
+import static helpers.BookingIds.hasBookingCount;
+import static helpers.BookingIds.isSubsetOf;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class BookingIdsTest {
+
+    @Test
+    @DisplayName("Reads the IDs of a listing in response order, skipping other fields")
+    public void testReadListing() {
+        BookingIds ids = read("[{\"bookingid\":3},{\"extra\":{\"nested\":[1,2]},\"bookingid\":1},{\"bookingid\":2}]");
+
+        assertArrayEquals(new int[]{3, 1, 2}, ids.toArray());
+        assertThat(ids, hasBookingCount(equalTo(3)));
+        assertThat(ids, containsBookingIds(1, 2, 3));
+        assertThat(ids, isSubsetOf(1, 2, 3, 4));
+        assertThat(ids, not(isSubsetOf(1, 2)));
+        assertThat(ids, not(containsBookingIds(4)));
+    }
+
+    @Test
+    @DisplayName("Reads an empty listing")
+    public void testReadEmptyListing() {
+        BookingIds ids = read("[]");
+
+        assertThat(ids, hasBookingCount(equalTo(0)));
+        assertThat(ids, isSubsetOf());
+    }
+
+    @Test
+    @DisplayName("Grows past the initial capacity")
+    public void testReadLargeListing() {
+        StringBuilder json = new StringBuilder("[");
+        for (int id = 1; id <= 5000; id++) {
+            json.append(id > 1 ? "," : "").append("{\"bookingid\":").append(id).append('}');
+        }
+        BookingIds ids = read(json.append(']').toString());
+
+        assertThat(ids, hasBookingCount(equalTo(5000)));
+        assertThat(ids, containsBookingIds(1, 1024, 1025, 5000));
+    }
+
+    @Test
+    @DisplayName("Rejects an entry without a booking ID")
+    public void testReadEntryWithoutBookingId() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+            () -> read("[{\"bookingid\":1},{\"id\":2}]"));
+        assertThat(e.getMessage(), containsString("entry 1 has no bookingid"));
+    }
+
+    @Test
+    @DisplayName("Rejects a body that is not an array of objects")
+    public void testReadNonArrayBody() {
+        assertThrows(IllegalArgumentException.class, () -> read("{\"bookingid\":1}"));
+        assertThrows(IllegalArgumentException.class, () -> read("[1,2]"));
+        assertThrows(IllegalArgumentException.class, () -> read(""));
+    }
+
+    @Test
+    @DisplayName("Rejects a body that is not valid JSON")
+    public void testReadInvalidJson() {
+        assertThrows(UncheckedIOException.class, () -> read("[{\"bookingid\":1},"));
+        assertThrows(UncheckedIOException.class, () -> read("Not Found"));
+    }
+
+    private static BookingIds read(String json) {
+        return BookingIds.read(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+}
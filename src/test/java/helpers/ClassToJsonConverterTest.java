@@ -0,0 +1,67 @@
+package helpers;
+
+import model.Booking;
+import model.BookingDates;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static helpers.ClassToJsonConverter.convertClassToJsonWithExtraField;
+import static helpers.ClassToJsonConverter.convertClassToJsonWithExtraFields;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ClassToJsonConverterTest {
+
+    private static final Booking BOOKING = new Booking("Ada", "Lovelace", 100, true,
+        new BookingDates("2024-01-01", "2024-01-05"), "Breakfast");
+
+    @Test
+    @DisplayName("Appends extra fields of any JSON type after the properties, in map order")
+    public void testMultipleExtraFields() {
+        Map<String, Object> extraFields = new LinkedHashMap<>();
+        extraFields.put("note", "late arrival");
+        extraFields.put("guests", 2);
+        extraFields.put("tags", List.of("vip"));
+
+        assertThat(convertClassToJsonWithExtraFields(BOOKING, extraFields), equalTo(
+            "{\"firstname\":\"Ada\",\"lastname\":\"Lovelace\",\"totalprice\":100,\"depositpaid\":true,"
+                + "\"bookingdates\":{\"checkin\":\"2024-01-01\",\"checkout\":\"2024-01-05\"},"
+                + "\"additionalneeds\":\"Breakfast\",\"note\":\"late arrival\",\"guests\":2,\"tags\":[\"vip\"]}"));
+    }
+
+    @Test
+    @DisplayName("Replaces the properties that extra fields override, including nested objects")
+    public void testOverriddenProperties() {
+        assertThat(convertClassToJsonWithExtraField(BOOKING, "totalprice", "abc"), equalTo(
+            "{\"firstname\":\"Ada\",\"lastname\":\"Lovelace\",\"depositpaid\":true,"
+                + "\"bookingdates\":{\"checkin\":\"2024-01-01\",\"checkout\":\"2024-01-05\"},"
+                + "\"additionalneeds\":\"Breakfast\",\"totalprice\":\"abc\"}"));
+
+        Map<String, Object> extraFields = new LinkedHashMap<>();
+        extraFields.put("bookingdates", "none");
+        extraFields.put("additionalneeds", null);
+        assertThat(convertClassToJsonWithExtraFields(BOOKING, extraFields), equalTo(
+            "{\"firstname\":\"Ada\",\"lastname\":\"Lovelace\",\"totalprice\":100,\"depositpaid\":true,"
+                + "\"bookingdates\":\"none\",\"additionalneeds\":null}"));
+    }
+
+    @Test
+    @DisplayName("Keeps nested properties named like an extra field")
+    public void testNestedPropertyNotOverridden() {
+        assertThat(convertClassToJsonWithExtraField(BOOKING, "checkin", "2024-02-01"), equalTo(
+            "{\"firstname\":\"Ada\",\"lastname\":\"Lovelace\",\"totalprice\":100,\"depositpaid\":true,"
+                + "\"bookingdates\":{\"checkin\":\"2024-01-01\",\"checkout\":\"2024-01-05\"},"
+                + "\"additionalneeds\":\"Breakfast\",\"checkin\":\"2024-02-01\"}"));
+    }
+
+    @Test
+    @DisplayName("Rejects objects that do not serialize to a JSON object")
+    public void testNotAnObject() {
+        assertThrows(IllegalArgumentException.class, () -> convertClassToJsonWithExtraFields("text", Map.of()));
+    }
+}
@@ -0,0 +1,36 @@
+package load;
+
+import base.BaseTest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+
+/**
+ * Runs a short load with the async client, so the pipelined users are checked in the normal build. Longer runs go
+ * through {@link BookingLoadTest} with {@code -Dbooker.load.client=async}.
+ */
+public class AsyncLoadGeneratorTest extends BaseTest {
+
+    @Test
+    @DisplayName("Sends the operation mix through the async client")
+    public void testAsyncLoad() throws InterruptedException {
+        LoadProfile profile = LoadProfile.builder()
+            .duration(Duration.ofSeconds(2))
+            .users(4)
+            .seedBookingsPerUser(2)
+            .client(LoadProfile.Client.ASYNC)
+            .pipeline(8)
+            .build();
+
+        LoadReport report = new LoadGenerator(profile).run();
+
+        assertThat(report.totalRequests(), greaterThan(0L));
+        // A user may delete a booking while its earlier requests for it are still in flight, creates never fail
+        assertThat(report.errors(Operation.CREATE), equalTo(0L));
+    }
+}
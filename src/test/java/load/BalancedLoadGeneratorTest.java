@@ -0,0 +1,88 @@
+package load;
+
+import base.BaseTest;
+import base.BookerContainer;
+import cluster.BalancingStrategy;
+import cluster.BookerInstance;
+import cluster.LoadBalancer;
+import emulator.BookerEmulator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Isolated;
+import specs.BaseSpec;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+
+/**
+ * Runs the load generator against two emulators under round-robin, where consecutive requests go to different
+ * instances unless they are on a booking. Runs isolated, as it points {@link BaseSpec} at its own instances for the
+ * duration of the test.
+ */
+@Isolated
+public class BalancedLoadGeneratorTest extends BaseTest {
+
+    private final List<BookerEmulator> emulators = List.of(BookerContainer.startEmulator(),
+        BookerContainer.startEmulator());
+    private LoadBalancer sharedLoadBalancer;
+    private URI sharedBaseUri;
+
+    @BeforeEach
+    public void initCluster() {
+        sharedLoadBalancer = BaseSpec.loadBalancer();
+        sharedBaseUri = BaseSpec.baseUri();
+        BaseSpec.initCluster(List.of(
+                new BookerInstance(0, emulators.get(0).getHost(), emulators.get(0).getPort()),
+                new BookerInstance(1, emulators.get(1).getHost(), emulators.get(1).getPort())),
+            BalancingStrategy.ROUND_ROBIN);
+    }
+
+    @AfterEach
+    public void restoreSharedInstances() {
+        if (sharedLoadBalancer == null) {
+            BaseSpec.init(sharedBaseUri.getHost(), sharedBaseUri.getPort());
+        } else {
+            BaseSpec.initCluster(sharedLoadBalancer.getInstances(), sharedLoadBalancer.getStrategy());
+        }
+        emulators.forEach(BookerEmulator::close);
+    }
+
+    @Test
+    @DisplayName("Sends the operation mix over round-robin instances without errors")
+    public void testBlockingLoad() throws InterruptedException {
+        assertNoErrors(LoadProfile.builder()
+            .duration(Duration.ofSeconds(2))
+            .users(4)
+            .seedBookingsPerUser(2)
+            .build());
+    }
+
+    @Test
+    @DisplayName("Sends the operation mix through the async client over round-robin instances without errors")
+    public void testAsyncLoad() throws InterruptedException {
+        assertNoErrors(LoadProfile.builder()
+            .duration(Duration.ofSeconds(2))
+            .users(4)
+            .seedBookingsPerUser(2)
+            .client(LoadProfile.Client.ASYNC)
+            .pipeline(1)
+            .build());
+    }
+
+    private void assertNoErrors(LoadProfile profile) throws InterruptedException {
+        LoadReport report = new LoadGenerator(profile).run();
+
+        assertThat(report.totalRequests(), greaterThan(0L));
+        assertThat(report.totalErrors(), equalTo(0L));
+        for (BookerInstance instance : BaseSpec.loadBalancer().getInstances()) {
+            assertThat(instance.toString(), instance.stats().latencies().getTotalCount(), greaterThan(0L));
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package load;
+
+import base.BaseTest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+
+/**
+ * Runs the booking load profile against the Testcontainers-started booker instance.
+ * Excluded from the normal build, run it with {@code mvn test -Pload}.
+ */
+@Tag("load")
+public class BookingLoadTest extends BaseTest {
+
+    @Test
+    @DisplayName("Drives the configured booking traffic mix and reports latency per endpoint")
+    public void testBookingLoad() throws InterruptedException {
+        LoadProfile profile = LoadProfile.fromSystemProperties();
+
+        LoadReport report = new LoadGenerator(profile).run();
+        report.print(System.out);
+
+        assertThat(report.totalRequests(), greaterThan(0L));
+    }
+}
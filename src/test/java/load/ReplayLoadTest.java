@@ -0,0 +1,45 @@
+package load;
+
+import base.BaseTest;
+import capture.CapturedExchange;
+import capture.ReplayReport;
+import capture.TrafficJournal;
+import capture.TrafficReplayer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import specs.BaseSpec;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Replays a captured traffic journal against the Testcontainers-started booker instance. Capture one with
+ * {@code mvn test -Dbooker.capture.file=target/traffic.jsonl}, then replay it with
+ * {@code mvn test -Pload -Dtest=ReplayLoadTest -Dbooker.replay.file=target/traffic.jsonl -Dbooker.replay.speed=4}.
+ */
+@Tag("load")
+public class ReplayLoadTest extends BaseTest {
+
+    @Test
+    @DisplayName("Replays the captured traffic and reports latency and response differences per endpoint")
+    public void testReplay() throws InterruptedException {
+        String file = System.getProperty("booker.replay.file");
+        assumeTrue(file != null && !file.isBlank(), "booker.replay.file is not set");
+
+        List<CapturedExchange> exchanges = TrafficJournal.read(Path.of(file));
+        TrafficReplayer replayer = new TrafficReplayer(BaseSpec.baseUri(), TrafficReplayer.speedFromSystemProperty(),
+            BaseSpec.connectionConfig());
+
+        ReplayReport report = replayer.replay(exchanges);
+        report.print(System.out);
+
+        assertThat(report.requests(), greaterThan(0L));
+        assertThat(report.failures(), equalTo(0L));
+    }
+}
@@ -0,0 +1,59 @@
+package load;
+
+import base.BaseTest;
+import builders.BookingBuilder;
+import helpers.BookingHelper;
+import model.Booking;
+import org.HdrHistogram.Histogram;
+import org.apache.http.HttpStatus;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import specs.ConnectionLeases;
+
+import java.time.Duration;
+
+import static helpers.AuthenticationHelper.getAuthenticationToken;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+
+/**
+ * Runs a create, get, update and delete journey for many simulated users at once, on virtual threads when the
+ * tests run on Java 21 or later. Run it with {@code mvn test -Pload -Dbooker.load.users=10000}.
+ * <p>
+ * Every user holds a pooled connection while its request is in flight. The pool is sized to
+ * {@code booker.load.users} unless {@code booker.http.maxTotal} or {@code booker.http.maxPerRoute} set it lower, see
+ * {@link specs.ConnectionConfig}. Users beyond the pool size queue for a connection and give up after
+ * {@code booker.http.connectTimeout}. The time spent queueing is printed apart from the journeys.
+ */
+@Tag("load")
+public class VirtualUserLoadTest extends BaseTest {
+
+    @Test
+    @DisplayName("Sustains the booking journey for the configured number of concurrent users")
+    public void testBookingJourney() throws InterruptedException {
+        int users = Integer.getInteger("booker.load.users", 16);
+        Duration duration = Duration.ofSeconds(Long.getLong("booker.load.duration", 30));
+
+        VirtualUserRunner.Result result = new VirtualUserRunner(users, duration).run(user -> {
+            Booking booking = new BookingBuilder().build();
+            int bookingId = BookingHelper.createBooking(booking);
+            String token = getAuthenticationToken();
+
+            assertThat(BookingHelper.getBooking(bookingId).statusCode(), equalTo(HttpStatus.SC_OK));
+            assertThat(BookingHelper.updateBooking(bookingId, new BookingBuilder().build(), token).statusCode(),
+                equalTo(HttpStatus.SC_OK));
+            assertThat(BookingHelper.deleteBooking(bookingId, token).statusCode(), equalTo(HttpStatus.SC_CREATED));
+        });
+
+        System.out.printf("%d users on %s threads: %d journeys, %d failed, %.1f journeys/s%n",
+            users, UserThreads.virtualThreadsAvailable() ? "virtual" : "platform",
+            result.iterations(), result.failures(), result.throughput());
+        Histogram leaseWaits = ConnectionLeases.waits();
+        System.out.printf("Connection lease wait: %d leases, p50 %.2f ms, p99 %.2f ms, max %.2f ms%n",
+            leaseWaits.getTotalCount(), leaseWaits.getValueAtPercentile(50) / 1000.0,
+            leaseWaits.getValueAtPercentile(99) / 1000.0, leaseWaits.getMaxValue() / 1000.0);
+        assertThat(result.iterations(), greaterThan(0L));
+    }
+}
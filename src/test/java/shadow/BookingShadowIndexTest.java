@@ -0,0 +1,103 @@
+package shadow;
+
+import model.Booking;
+import model.BookingDates;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import shadow.BookingShadowIndex.DateBounds;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks the IDs {@link BookingShadowIndex#query} computes for name and date filters, with both date bounds.
+ * Bookings 1 to 4 share checkin and checkout days on their boundaries, so the bounds give different results.
+ */
+public class BookingShadowIndexTest {
+
+    private BookingShadowIndex index;
+
+    @BeforeEach
+    public void createIndex() {
+        index = new BookingShadowIndex();
+        index.put(1, booking("Ada", "Lovelace", "2024-01-01", "2024-01-05"));
+        index.put(2, booking("Brook", "Lovelace", "2024-01-02", "2024-01-06"));
+        index.put(3, booking("Ada", "Hopper", "2024-01-03", "2024-01-07"));
+        index.put(4, booking("Cleo", "Hopper", "2024-01-03", "2024-01-05"));
+        index.put(5, booking("Dana", "Turing", "not a date", null));
+    }
+
+    @Test
+    @DisplayName("Lists bookings by first and last name")
+    public void testNames() {
+        assertQuery(Map.of("firstname", "Ada"), DateBounds.INCLUSIVE, 1, 3);
+        assertQuery(Map.of("lastname", "Hopper"), DateBounds.INCLUSIVE, 3, 4);
+        assertQuery(Map.of("firstname", "Ada", "lastname", "Hopper"), DateBounds.INCLUSIVE, 3);
+        assertQuery(Map.of("firstname", "Nobody"), DateBounds.INCLUSIVE);
+        assertQuery(Map.of(), DateBounds.INCLUSIVE, 1, 2, 3, 4, 5);
+    }
+
+    @Test
+    @DisplayName("Includes bookings checking in on the checkin filter only with inclusive bounds")
+    public void testCheckin() {
+        assertQuery(Map.of("checkin", "2024-01-02"), DateBounds.INCLUSIVE, 2, 3, 4);
+        assertQuery(Map.of("checkin", "2024-01-02"), DateBounds.EXCLUSIVE, 3, 4);
+        assertQuery(Map.of("checkin", "2024-01-03"), DateBounds.EXCLUSIVE);
+    }
+
+    @Test
+    @DisplayName("Includes bookings checking out on the checkout filter only with inclusive bounds")
+    public void testCheckout() {
+        assertQuery(Map.of("checkout", "2024-01-06"), DateBounds.INCLUSIVE, 1, 2, 4);
+        assertQuery(Map.of("checkout", "2024-01-06"), DateBounds.EXCLUSIVE, 1, 4);
+        assertQuery(Map.of("checkout", "2024-01-05"), DateBounds.EXCLUSIVE);
+    }
+
+    @Test
+    @DisplayName("Combines date filters with each other and with names")
+    public void testCombinedFilters() {
+        Map<String, String> dates = Map.of("checkin", "2024-01-01", "checkout", "2024-01-07");
+        assertQuery(dates, DateBounds.INCLUSIVE, 1, 2, 3, 4);
+        assertQuery(dates, DateBounds.EXCLUSIVE, 2, 4);
+        assertQuery(Map.of("lastname", "Hopper", "checkin", "2024-01-03", "checkout", "2024-01-05"),
+            DateBounds.INCLUSIVE, 4);
+        assertQuery(Map.of("lastname", "Hopper", "checkin", "2024-01-03", "checkout", "2024-01-05"),
+            DateBounds.EXCLUSIVE);
+        assertThat(index.query("Ada", null, LocalDate.of(2024, 1, 1), null, DateBounds.EXCLUSIVE),
+            equalTo(new int[]{3}));
+    }
+
+    @Test
+    @DisplayName("Moves updated bookings between index entries and drops removed ones")
+    public void testUpdateAndRemove() {
+        index.put(1, booking("Ada", "Hopper", "2024-01-04", "2024-01-05"));
+        assertQuery(Map.of("lastname", "Lovelace"), DateBounds.INCLUSIVE, 2);
+        assertQuery(Map.of("lastname", "Hopper", "checkin", "2024-01-03"), DateBounds.EXCLUSIVE, 1);
+
+        assertThat(index.remove(3), equalTo(true));
+        assertThat(index.remove(3), equalTo(false));
+        assertQuery(Map.of("firstname", "Ada"), DateBounds.INCLUSIVE, 1);
+        assertThat(index.size(), equalTo(4));
+    }
+
+    @Test
+    @DisplayName("Rejects date filters that are not dates")
+    public void testInvalidDateFilter() {
+        assertThrows(DateTimeParseException.class,
+            () -> index.query(Map.of("checkin", "yesterday"), DateBounds.INCLUSIVE));
+    }
+
+    private void assertQuery(Map<String, ?> filters, DateBounds bounds, int... expected) {
+        assertThat(filters + " " + bounds, index.query(filters, bounds), equalTo(expected));
+    }
+
+    private static Booking booking(String firstname, String lastname, String checkin, String checkout) {
+        return new Booking(firstname, lastname, 100, true, new BookingDates(checkin, checkout), "Breakfast");
+    }
+}
@@ -0,0 +1,32 @@
+package stress;
+
+import base.BaseTest;
+import consistency.MutationStress;
+import consistency.StressProfile;
+import consistency.StressResult;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.greaterThan;
+
+/**
+ * Races updates, partial updates, deletes and gets of the same bookings against the Testcontainers-started booker
+ * instance and checks that the responses are linearizable. Excluded from the normal build, run it with
+ * {@code mvn test -Pstress}.
+ */
+@Tag("stress")
+public class ConcurrentMutationStressTest extends BaseTest {
+
+    @Test
+    @DisplayName("Concurrent mutations of the same bookings lose no updates and serve no stale reads")
+    public void testConcurrentMutations() throws InterruptedException {
+        StressResult result = new MutationStress(StressProfile.fromSystemProperties()).run();
+        result.print(System.out);
+
+        assertThat(result.getHistory().size(), greaterThan(0));
+        assertThat(result.getAnomalies(), empty());
+    }
+}